@@ -0,0 +1,48 @@
+package com.moleculepowered.api.exception.user;
+
+import com.moleculepowered.api.localization.i18n;
+
+import static com.moleculepowered.api.localization.i18n.tl;
+import static com.moleculepowered.api.util.StringUtil.format;
+
+/**
+ * Exception thrown when a user storage backend fails to read or write a user record.
+ *
+ * <p>Please note that if the {@link i18n} class is properly configured to translate messages,
+ * this class will use it to automatically translate messages. If not configured, all messages
+ * will be output as they are provided.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserStorageException extends RuntimeException
+{
+    /**
+     * Constructs a {@link UserStorageException} with {@code null} as its detail message.
+     * The cause is not initialized, and may subsequently be initialized by a call to {@link #initCause}.
+     */
+    public UserStorageException() {
+        super();
+    }
+
+    /**
+     * Constructs a {@link UserStorageException} with the specified detail message.
+     * The cause is not initialized, and may subsequently be initialized by a call to {@link #initCause}.
+     *
+     * @param message the detail message. The detail message is saved for later retrieval by the {@link #getMessage()} method.
+     * @param param   optional parameters that will be included inside the exception message
+     */
+    public UserStorageException(String message, Object... param) {
+        super(tl(format(message, param)));
+    }
+
+    /**
+     * Constructs a {@link UserStorageException} with the specified detail message and cause.
+     *
+     * @param cause   the cause (which is saved for later retrieval by the {@link #getCause()} method).
+     * @param message the detail message. The detail message is saved for later retrieval by the {@link #getMessage()} method.
+     * @param param   optional parameters that will be included inside the exception message
+     */
+    public UserStorageException(Throwable cause, String message, Object... param) {
+        super(tl(format(message, param)), cause);
+    }
+}
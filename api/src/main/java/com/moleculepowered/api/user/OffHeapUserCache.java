@@ -0,0 +1,385 @@
+package com.moleculepowered.api.user;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An off-heap tier holding the hot metadata of users that are not resident in a {@link UserManager}:
+ * their name, locale, last-seen time and a fixed set of numeric statistics. Entries are stored as
+ * fixed-layout records inside a direct {@link ByteBuffer}, keyed by UUID using open addressing, so
+ * holding hundreds of thousands of users adds no objects to the heap and no work for the garbage
+ * collector.
+ *
+ * <p>Only hot users are kept on the heap as full {@link User} objects; the manager writes a user into
+ * this tier when they are loaded and again when they leave the registry, so metadata of evicted users
+ * can still be read without loading them. Entries reflect the user's state when they were last
+ * resident, while resident users remain the source of truth.</p>
+ *
+ * <p>Names are stored using up to 32 bytes and locales using up to 16 bytes of UTF-8; longer values are truncated. The statistics stored are
+ * chosen when the cache is created, and are read from each user using {@link User#getLong(String, long)}.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * userManager.setOffHeapCache(new OffHeapUserCache(262_144, "kills", "deaths"));
+ * long kills = userManager.getOffHeapCache().getStat(uuid, "kills", 0);
+ * }</pre>
+ *
+ * @author OMGitzFROST
+ */
+public final class OffHeapUserCache
+{
+    private static final int NAME_BYTES = 32, LOCALE_BYTES = 16;
+    private static final int LAST_SEEN = 16, NAME = 24, LOCALE = NAME + 1 + NAME_BYTES, STATS = 80;
+    private static final double LOAD_FACTOR = 0.75;
+    private final List<String> statKeys;
+    private final Map<String, Integer> statOffsets = new HashMap<>();
+    private final int slotSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ByteBuffer buffer;
+    private int capacity, size;
+
+    /*
+    CONSTRUCTORS
+     */
+
+    /**
+     * Creates an off-heap cache sized for the provided number of users, storing the provided
+     * statistics for each of them. The cache doubles in size once it is 75% full.
+     *
+     * @param expected the expected number of users
+     * @param statKeys the keys of the numeric statistics stored for each user
+     * @throws IllegalArgumentException when the expected number of users is not positive
+     */
+    public OffHeapUserCache(int expected, @NotNull String... statKeys) {
+        if (expected <= 0) throw new IllegalArgumentException("The expected number of users must be positive");
+
+        this.statKeys = Collections.unmodifiableList(Arrays.asList(statKeys.clone()));
+        for (int i = 0; i < statKeys.length; i++) statOffsets.put(statKeys[i], STATS + i * 8);
+        this.slotSize = STATS + statKeys.length * 8;
+
+        int needed = (int) Math.min(1 << 30, (long) Math.ceil(expected / LOAD_FACTOR));
+        allocate(Math.max(16, Integer.highestOneBit(needed - 1) << 1));
+    }
+
+    /*
+    UPDATE METHODS
+     */
+
+    /**
+     * Writes the metadata of the provided user into this cache, replacing any previous entry.
+     *
+     * @param user     the target user
+     * @param lastSeen the time the user was last seen, in milliseconds since the epoch
+     */
+    public void put(@NotNull User user, long lastSeen) {
+        long[] stats = new long[statKeys.size()];
+        for (int i = 0; i < stats.length; i++) stats[i] = user.getLong(statKeys.get(i), 0);
+        put(user.getUniqueId(), user.getName(), user.getLocale(), lastSeen, stats);
+    }
+
+    /**
+     * Writes the provided metadata into this cache, replacing any previous entry. Missing statistics
+     * are stored as zero.
+     *
+     * @param uuid     the user's UUID
+     * @param name     the user's name
+     * @param locale   the user's locale
+     * @param lastSeen the time the user was last seen, in milliseconds since the epoch
+     * @param stats    the user's statistics, in the order of {@link #getStatKeys()}
+     * @throws IllegalArgumentException when the nil UUID is provided, as it marks empty slots
+     */
+    public void put(@NotNull UUID uuid, @Nullable String name, @Nullable String locale, long lastSeen, long[] stats) {
+        if (uuid.getMostSignificantBits() == 0 && uuid.getLeastSignificantBits() == 0)
+            throw new IllegalArgumentException("The nil UUID cannot be cached");
+
+        lock.writeLock().lock();
+        try {
+            int slot = find(uuid);
+            if (slot < 0) {
+                if (size + 1 > capacity * LOAD_FACTOR) {
+                    grow();
+                    slot = find(uuid);
+                }
+                slot = -slot - 1;
+                size++;
+            }
+
+            int position = slot * slotSize;
+            buffer.putLong(position, uuid.getMostSignificantBits());
+            buffer.putLong(position + 8, uuid.getLeastSignificantBits());
+            buffer.putLong(position + LAST_SEEN, lastSeen);
+            writeText(position + NAME, NAME_BYTES, name);
+            writeText(position + LOCALE, LOCALE_BYTES, locale);
+            for (int i = 0; i < statKeys.size(); i++) buffer.putLong(position + STATS + i * 8, i < stats.length ? stats[i] : 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the entry assigned to the provided UUID. Following entries of the same probe sequence
+     * are shifted back, so no tombstones are left behind.
+     *
+     * @param uuid the target UUID
+     * @return true if an entry was removed
+     */
+    public boolean remove(@NotNull UUID uuid) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(uuid);
+            if (slot < 0) return false;
+
+            int mask = capacity - 1;
+            int hole = slot;
+            for (int next = (hole + 1) & mask; ; next = (next + 1) & mask) {
+                long msb = buffer.getLong(next * slotSize), lsb = buffer.getLong(next * slotSize + 8);
+                if (msb == 0 && lsb == 0) break;
+
+                // MOVE THE ENTRY INTO THE HOLE IF ITS HOME SLOT DOES NOT LIE BETWEEN THE HOLE AND ITSELF
+                int home = hash(msb, lsb) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    copySlot(next, hole);
+                    hole = next;
+                }
+            }
+            for (int offset = 0; offset < slotSize; offset += 8) buffer.putLong(hole * slotSize + offset, 0);
+            size--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every entry from this cache, shrinking it to its minimum size.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            allocate(16);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+    LOOKUP METHODS
+     */
+
+    /**
+     * Returns whether this cache holds an entry for the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return true if an entry exists
+     */
+    public boolean contains(@NotNull UUID uuid) {
+        lock.readLock().lock();
+        try {
+            return find(uuid) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the name stored for the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return the name, or null if no entry or name exists
+     */
+    public @Nullable String getName(@NotNull UUID uuid) {
+        return readText(uuid, NAME);
+    }
+
+    /**
+     * Returns the locale stored for the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return the locale, or null if no entry or locale exists
+     */
+    public @Nullable String getLocale(@NotNull UUID uuid) {
+        return readText(uuid, LOCALE);
+    }
+
+    /**
+     * Returns the time the user assigned to the provided UUID was last seen.
+     *
+     * @param uuid the target UUID
+     * @return the timestamp in milliseconds since the epoch, or -1 if no entry exists
+     */
+    public long getLastSeen(@NotNull UUID uuid) {
+        return readLong(uuid, LAST_SEEN, -1);
+    }
+
+    /**
+     * Returns the statistic stored under the provided key for the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @param key  the statistic key
+     * @param def  the default value
+     * @return the statistic, or the default value if no entry exists or the key is not stored
+     */
+    public long getStat(@NotNull UUID uuid, @NotNull String key, long def) {
+        Integer offset = statOffsets.get(key);
+        return offset != null ? readLong(uuid, offset, def) : def;
+    }
+
+    /**
+     * Returns the keys of the statistics stored for each user.
+     *
+     * @return an unmodifiable list of keys
+     */
+    public @NotNull List<String> getStatKeys() {
+        return statKeys;
+    }
+
+    /**
+     * Returns the number of entries held by this cache.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the amount of off-heap memory reserved by this cache.
+     *
+     * @return the reserved memory, in bytes
+     */
+    public long getMemoryUsage() {
+        lock.readLock().lock();
+        try {
+            return (long) capacity * slotSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long readLong(@NotNull UUID uuid, int offset, long def) {
+        lock.readLock().lock();
+        try {
+            int slot = find(uuid);
+            return slot >= 0 ? buffer.getLong(slot * slotSize + offset) : def;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private @Nullable String readText(@NotNull UUID uuid, int offset) {
+        lock.readLock().lock();
+        try {
+            int slot = find(uuid);
+            if (slot < 0) return null;
+
+            int position = slot * slotSize + offset;
+            int length = buffer.get(position) - 1;
+            if (length < 0) return null;
+
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) bytes[i] = buffer.get(position + 1 + i);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes text as a length byte followed by its UTF-8 bytes, truncated at a character boundary.
+     * A length byte of zero marks a null value.
+     */
+    private void writeText(int position, int limit, @Nullable String text) {
+        if (text == null) {
+            buffer.put(position, (byte) 0);
+            return;
+        }
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, limit);
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) length--;
+
+        buffer.put(position, (byte) (length + 1));
+        for (int i = 0; i < length; i++) buffer.put(position + 1 + i, bytes[i]);
+    }
+
+    /*
+    TABLE METHODS
+     */
+
+    /**
+     * Returns the slot holding the provided UUID, or, if it is missing, {@code -(slot + 1)} where
+     * slot is the empty slot it would be inserted into.
+     */
+    private int find(@NotNull UUID uuid) {
+        long msb = uuid.getMostSignificantBits(), lsb = uuid.getLeastSignificantBits();
+        int mask = capacity - 1;
+        for (int slot = hash(msb, lsb) & mask; ; slot = (slot + 1) & mask) {
+            long currentMsb = buffer.getLong(slot * slotSize), currentLsb = buffer.getLong(slot * slotSize + 8);
+            if (currentMsb == msb && currentLsb == lsb) return slot;
+            if (currentMsb == 0 && currentLsb == 0) return -slot - 1;
+        }
+    }
+
+    /**
+     * Doubles the capacity of the table, moving every entry into a new buffer.
+     */
+    private void grow() {
+        ByteBuffer previous = buffer;
+        int previousCapacity = capacity;
+        allocate(previousCapacity * 2);
+
+        int mask = capacity - 1;
+        for (int slot = 0; slot < previousCapacity; slot++) {
+            long msb = previous.getLong(slot * slotSize), lsb = previous.getLong(slot * slotSize + 8);
+            if (msb == 0 && lsb == 0) continue;
+
+            int target = hash(msb, lsb) & mask;
+            while (buffer.getLong(target * slotSize) != 0 || buffer.getLong(target * slotSize + 8) != 0) target = (target + 1) & mask;
+            for (int offset = 0; offset < slotSize; offset += 8) buffer.putLong(target * slotSize + offset, previous.getLong(slot * slotSize + offset));
+            size++;
+        }
+    }
+
+    /**
+     * Replaces the table with an empty one of the provided capacity.
+     */
+    private void allocate(int capacity) {
+        if ((long) capacity * slotSize > Integer.MAX_VALUE)
+            throw new IllegalStateException("The off-heap user cache cannot grow past 2 GB");
+
+        this.buffer = ByteBuffer.allocateDirect(capacity * slotSize);
+        this.capacity = capacity;
+        this.size = 0;
+    }
+
+    private void copySlot(int from, int to) {
+        for (int offset = 0; offset < slotSize; offset += 8) buffer.putLong(to * slotSize + offset, buffer.getLong(from * slotSize + offset));
+    }
+
+    /**
+     * Spreads the bits of a UUID into a slot hash, using the finalizer of MurmurHash3.
+     */
+    private static int hash(long msb, long lsb) {
+        long hash = msb ^ (lsb * 0x9E3779B97F4A7C15L);
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+}
@@ -14,6 +14,19 @@ import java.util.UUID;
  */
 public interface User extends UserData {
 
+    /**
+     * Returns an immutable view of this user's current state, which may be shared with and read
+     * from any thread without locking. The same snapshot is returned until this user is changed;
+     * implementations publish a new one as each change is committed, so this method never blocks.
+     * By default, a new snapshot is taken from {@link #getData()} each time this method is called.
+     *
+     * @return the current snapshot
+     */
+    @NotNull
+    default UserSnapshot snapshot() {
+        return new UserSnapshot(getUniqueId(), getName(), getDisplayName(), getCustomName(), getLocale(), getData());
+    }
+
     /**
      * Retrieve the unique ID assigned to this user.
      *
@@ -23,11 +36,12 @@ public interface User extends UserData {
     UUID getUniqueId();
 
     /**
-     * Retrieve the name assigned to this user object.
+     * Retrieve the name assigned to this user object. The name may be unknown, for example for
+     * a player who joined before the server started caching names and has no stored record.
      *
-     * @return the name of the user
+     * @return the name of the user, or null if it is unknown
      */
-    @NotNull
+    @Nullable
     String getName();
 
     /**
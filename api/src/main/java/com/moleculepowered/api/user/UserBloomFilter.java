@@ -0,0 +1,265 @@
+package com.moleculepowered.api.user;
+
+import com.moleculepowered.api.exception.user.UserStorageException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter over the UUIDs and names of every user known to a server, used to answer
+ * "definitely unknown" without touching the user registry or storage. A negative answer is always
+ * correct, while a positive one may be wrong with the false-positive probability the filter was
+ * sized for.
+ *
+ * <p>Entries can only be added. Bits are set atomically, so entries may be added and tested from
+ * any thread without locking, and the filter may be saved to a file and loaded again on the next
+ * start. Once more entries than expected have been added, the false-positive rate rises and
+ * {@link #isSaturated()} returns true; the filter should then be rebuilt with a larger capacity.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserBloomFilter
+{
+    private static final int MAGIC = 0x4D55424C, VERSION = 1;
+    private static final long NAME_SEED = 0x9E3779B97F4A7C15L;
+    private final AtomicLongArray words;
+    private final long bits, expected;
+    private final int hashes;
+    private final AtomicLong count;
+
+    /*
+    CONSTRUCTORS
+     */
+
+    /**
+     * Creates an empty filter sized for the provided number of entries and false-positive probability.
+     * Please note that a user usually adds two entries, their UUID and their name.
+     *
+     * @param expected    the expected number of entries
+     * @param probability the desired false-positive probability, between 0 and 1 exclusive
+     * @throws IllegalArgumentException when an argument is out of range
+     */
+    public UserBloomFilter(long expected, double probability) {
+        if (expected <= 0) throw new IllegalArgumentException("The expected number of entries must be positive");
+        if (probability <= 0 || probability >= 1) throw new IllegalArgumentException("The false-positive probability must be between 0 and 1");
+
+        long size = (long) Math.ceil(-expected * Math.log(probability) / (Math.log(2) * Math.log(2)));
+        int length = (int) Math.min(Integer.MAX_VALUE - 8, (size + 63) / 64);
+        this.words = new AtomicLongArray(length);
+        this.bits = (long) length * 64;
+        this.expected = expected;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expected * Math.log(2)));
+        this.count = new AtomicLong();
+    }
+
+    private UserBloomFilter(@NotNull AtomicLongArray words, long expected, int hashes, long count) {
+        this.words = words;
+        this.bits = (long) words.length() * 64;
+        this.expected = expected;
+        this.hashes = hashes;
+        this.count = new AtomicLong(count);
+    }
+
+    /*
+    FILTER METHODS
+     */
+
+    /**
+     * Adds a UUID to this filter.
+     *
+     * @param uuid the user's UUID
+     */
+    public void put(@NotNull UUID uuid) {
+        set(mix(uuid.getMostSignificantBits()), mix(uuid.getLeastSignificantBits() ^ uuid.getMostSignificantBits()));
+    }
+
+    /**
+     * Adds a name to this filter, ignoring case.
+     *
+     * @param name the user's name
+     */
+    public void put(@NotNull String name) {
+        long hash = hash(name);
+        set(hash, mix(hash ^ NAME_SEED));
+    }
+
+    /**
+     * Returns whether the provided UUID may have been added to this filter.
+     *
+     * @param uuid the target UUID
+     * @return false if the UUID has definitely never been added
+     */
+    public boolean mightContain(@NotNull UUID uuid) {
+        return test(mix(uuid.getMostSignificantBits()), mix(uuid.getLeastSignificantBits() ^ uuid.getMostSignificantBits()));
+    }
+
+    /**
+     * Returns whether the provided name may have been added to this filter, ignoring case.
+     *
+     * @param name the target name
+     * @return false if the name has definitely never been added
+     */
+    public boolean mightContain(@NotNull String name) {
+        long hash = hash(name);
+        return test(hash, mix(hash ^ NAME_SEED));
+    }
+
+    /**
+     * Sets the bits selected by the provided hashes, using double hashing to derive each position.
+     */
+    private void set(long first, long second) {
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(first + i * second, bits);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current;
+            while (((current = words.get(index)) & mask) == 0) {
+                if (words.compareAndSet(index, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        if (changed) count.incrementAndGet();
+    }
+
+    private boolean test(long first, long second) {
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(first + i * second, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a 64-bit hash of the lowercased name, using FNV-1a followed by a final mix.
+     */
+    private static long hash(@NotNull String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Spreads the bits of a long, using the finalizer of MurmurHash3.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /*
+    GETTER METHODS
+     */
+
+    /**
+     * Returns the approximate number of entries added to this filter. Entries whose bits were all
+     * set already are not counted.
+     *
+     * @return the number of entries
+     */
+    public long size() {
+        return count.get();
+    }
+
+    /**
+     * Returns the number of entries this filter was sized for.
+     *
+     * @return the expected number of entries
+     */
+    public long getExpected() {
+        return expected;
+    }
+
+    /**
+     * Returns whether more entries than expected have been added, in which case the false-positive
+     * rate exceeds the one this filter was sized for.
+     *
+     * @return true if the filter should be rebuilt
+     */
+    public boolean isSaturated() {
+        return count.get() > expected;
+    }
+
+    /*
+    PERSISTENCE METHODS
+     */
+
+    /**
+     * Writes this filter to the provided file. The file is replaced atomically, so a failed write
+     * never leaves a corrupt filter behind.
+     *
+     * @param file the target file
+     * @throws UserStorageException when the file cannot be written
+     */
+    public void save(@NotNull File file) {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            File folder = file.getAbsoluteFile().getParentFile();
+            if (!folder.exists() && !folder.mkdirs()) throw new IOException("Unable to create folder " + folder.getPath());
+
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(expected);
+                output.writeInt(hashes);
+                output.writeLong(count.get());
+                output.writeInt(words.length());
+                for (int i = 0; i < words.length(); i++) output.writeLong(words.get(i));
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UserStorageException(ex, "Failed to write the known users filter {0}", file.getPath());
+        }
+    }
+
+    /**
+     * Reads a filter previously written using {@link #save(File)}.
+     *
+     * @param file the source file
+     * @return the filter, or null if the file does not exist or is not a valid filter
+     */
+    public static @Nullable UserBloomFilter load(@NotNull File file) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) return null;
+
+            long expected = input.readLong();
+            int hashes = input.readInt();
+            long count = input.readLong();
+            int length = input.readInt();
+            if (expected <= 0 || hashes <= 0 || length <= 0 || (long) length * 8 > file.length()) return null;
+
+            AtomicLongArray words = new AtomicLongArray(length);
+            for (int i = 0; i < length; i++) words.set(i, input.readLong());
+            return new UserBloomFilter(words, expected, hashes, count);
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            new UserStorageException(ex, "Failed to read the known users filter {0}", file.getPath()).printStackTrace();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.moleculepowered.api.user;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An immutable snapshot of the residency statistics of a {@link UserManager}, returned by
+ * {@link UserManager#getStats()}. Counters are cumulative since the manager was created, or since
+ * they were last reset using {@link UserManager#resetStats()}.
+ *
+ * <p>A hit is a lookup answered by a resident user, while a miss is a lookup that had to load the
+ * user from storage. Lookups of users known to be absent by the known users filter count as neither.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserCacheStats
+{
+    private final long hits, misses, evictions, writeBackFailures;
+    private final int resident;
+
+    /*
+    CONSTRUCTORS
+     */
+
+    /**
+     * Creates a snapshot of the provided counters.
+     *
+     * @param hits              the number of lookups answered by a resident user
+     * @param misses            the number of lookups that loaded the user from storage
+     * @param evictions         the number of users evicted for being idle or exceeding the maximum size
+     * @param writeBackFailures the number of evictions and removals cancelled because pending changes could not be written
+     * @param resident          the number of users currently resident
+     */
+    public UserCacheStats(long hits, long misses, long evictions, long writeBackFailures, int resident) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.writeBackFailures = writeBackFailures;
+        this.resident = resident;
+    }
+
+    /*
+    GETTER METHODS
+     */
+
+    /**
+     * Returns the number of lookups answered by a resident user.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to load the user from storage.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Returns the total number of lookups, hits and misses combined.
+     *
+     * @return the request count
+     */
+    public long getRequestCount() {
+        return hits + misses;
+    }
+
+    /**
+     * Returns the ratio of lookups answered by a resident user.
+     *
+     * @return the hit rate, between 0 and 1, or 1 if no lookup has been made
+     */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1 : (double) hits / requests;
+    }
+
+    /**
+     * Returns the number of users evicted for being idle or exceeding the maximum size. Users removed
+     * explicitly, deleted or invalidated are not counted.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of evictions and removals cancelled because the user's pending changes could
+     * not be written. Such users remain resident, and their eviction is retried by the next clean up.
+     *
+     * @return the write-back failure count
+     */
+    public long getWriteBackFailureCount() {
+        return writeBackFailures;
+    }
+
+    /**
+     * Returns the number of users that were resident when this snapshot was taken.
+     *
+     * @return the resident count
+     */
+    public int getResidentCount() {
+        return resident;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "UserCacheStats{hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                + ", writeBackFailures=" + writeBackFailures + ", resident=" + resident + "}";
+    }
+}
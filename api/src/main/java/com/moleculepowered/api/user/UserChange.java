@@ -0,0 +1,174 @@
+package com.moleculepowered.api.user;
+
+import com.google.gson.JsonElement;
+import com.moleculepowered.api.util.JsonUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An immutable description of a single mutation applied to a user, delivered to the subscribers
+ * of a {@link UserChangeFeed}.
+ *
+ * <p>Please note that values are captured when the change is made; values holding a JSON object
+ * or array are copied, so later changes to the user do not alter a change already published.</p>
+ *
+ * <p>Keys changed together using {@link UserData#edit(java.util.function.Consumer)} are reported as a
+ * single {@link Type#EDITED} change, holding the change of each key in {@link #getChanges()}.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserChange
+{
+    private final Type type;
+    private final UUID uuid;
+    private final String key;
+    private final JsonElement oldValue, newValue;
+    private final List<UserChange> changes;
+    private final long timestamp;
+
+    /*
+    CONSTRUCTORS
+     */
+
+    private UserChange(@NotNull Type type, @NotNull UUID uuid, @Nullable String key, @Nullable JsonElement oldValue,
+                       @Nullable JsonElement newValue, @NotNull List<UserChange> changes) {
+        this.type = type;
+        this.uuid = uuid;
+        this.key = key;
+        this.oldValue = oldValue != null ? JsonUtil.copy(oldValue) : null;
+        this.newValue = newValue != null ? JsonUtil.copy(newValue) : null;
+        this.changes = changes;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Creates a change describing a user whose record has just been created.
+     *
+     * @param uuid the user's UUID
+     * @return a new change
+     */
+    public static @NotNull UserChange created(@NotNull UUID uuid) {
+        return new UserChange(Type.CREATED, uuid, null, null, null, Collections.emptyList());
+    }
+
+    /**
+     * Creates a change describing a user whose record has been deleted.
+     *
+     * @param uuid the user's UUID
+     * @return a new change
+     */
+    public static @NotNull UserChange deleted(@NotNull UUID uuid) {
+        return new UserChange(Type.DELETED, uuid, null, null, null, Collections.emptyList());
+    }
+
+    /**
+     * Creates a change describing a key whose value has changed. A null value means the key
+     * was missing before, or has been removed.
+     *
+     * @param uuid     the user's UUID
+     * @param key      the changed key
+     * @param oldValue the previous value
+     * @param newValue the new value
+     * @return a new change
+     */
+    public static @NotNull UserChange updated(@NotNull UUID uuid, @NotNull String key, @Nullable JsonElement oldValue, @Nullable JsonElement newValue) {
+        return new UserChange(Type.UPDATED, uuid, key, oldValue, newValue, Collections.emptyList());
+    }
+
+    /**
+     * Creates a change grouping several key changes applied together in a single edit.
+     *
+     * @param uuid    the user's UUID
+     * @param changes the change of each key, in the order they were made
+     * @return a new change
+     */
+    public static @NotNull UserChange edited(@NotNull UUID uuid, @NotNull List<UserChange> changes) {
+        return new UserChange(Type.EDITED, uuid, null, null, null, Collections.unmodifiableList(changes));
+    }
+
+    /*
+    GETTER METHODS
+     */
+
+    /**
+     * Returns the type of this change.
+     *
+     * @return the change type
+     */
+    public @NotNull Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the UUID of the changed user.
+     *
+     * @return the user's UUID
+     */
+    public @NotNull UUID getUniqueId() {
+        return uuid;
+    }
+
+    /**
+     * Returns the changed key. This value is only present for {@link Type#UPDATED} changes.
+     *
+     * @return the changed key, or null
+     */
+    public @Nullable String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the value assigned to the key before the change.
+     *
+     * @return the previous value, or null if the key was missing
+     */
+    public @Nullable JsonElement getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Returns the value assigned to the key after the change.
+     *
+     * @return the new value, or null if the key was removed
+     */
+    public @Nullable JsonElement getNewValue() {
+        return newValue;
+    }
+
+    /**
+     * Returns the key changes grouped by this change. This list is only filled for
+     * {@link Type#EDITED} changes.
+     *
+     * @return an unmodifiable list of key changes
+     */
+    public @NotNull List<UserChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns the time at which this change was made, in milliseconds since the epoch.
+     *
+     * @return the change timestamp
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "UserChange{type=" + type + ", uuid=" + uuid + (key != null ? ", key=" + key + ", old=" + oldValue + ", new=" + newValue : "")
+                + (!changes.isEmpty() ? ", changes=" + changes : "") + "}";
+    }
+
+    /**
+     * The types of mutations that may be applied to a user.
+     */
+    public enum Type
+    {
+        CREATED, DELETED, UPDATED, EDITED
+    }
+}
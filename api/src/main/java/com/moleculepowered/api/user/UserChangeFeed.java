@@ -0,0 +1,145 @@
+package com.moleculepowered.api.user;
+
+import com.moleculepowered.api.Console;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * A change-data-capture stream of the mutations applied to users. Changes are published from any
+ * thread into a lock-free queue, and delivered to subscribers in batches each time the feed is
+ * drained, which platforms do once per server tick.
+ *
+ * <p>Each subscriber receives the whole batch in a single call, on the executor it subscribed with,
+ * so listeners pay one dispatch per tick instead of one per mutation. When nobody is subscribed,
+ * publishing a change does nothing.</p>
+ *
+ * <p>The feed may be assigned directly as a user's change listener. Users check
+ * {@link #hasSubscribers()} before capturing a change, so mutations cost nothing extra while
+ * nobody is subscribed.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * userManager.subscribe(Runnable::run, changes -> changes.forEach(change -> cache.invalidate(change.getUniqueId())));
+ * }</pre>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserChangeFeed implements Consumer<UserChange>
+{
+    private final Queue<UserChange> pending = new ConcurrentLinkedQueue<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Console console;
+
+    /**
+     * Creates a change feed that reports failing listeners to the provided console.
+     *
+     * @param console the console failures are reported to
+     */
+    public UserChangeFeed(@NotNull Console console) {
+        this.console = console;
+    }
+
+    /**
+     * Subscribes a listener to this feed.
+     *
+     * @param executor the executor each batch is delivered on
+     * @param listener the listener receiving each batch
+     * @return the subscription, which may be used to unsubscribe
+     */
+    public @NotNull Subscription subscribe(@NotNull Executor executor, @NotNull Consumer<List<UserChange>> listener) {
+        Subscription subscription = new Subscription(executor, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Publishes a change, which is delivered with the next batch.
+     *
+     * @param change the published change
+     */
+    public void publish(@NotNull UserChange change) {
+        if (!subscriptions.isEmpty()) pending.add(change);
+    }
+
+    /**
+     * Publishes a change, allowing this feed to be assigned as a user's change listener.
+     *
+     * @param change the published change
+     * @see #publish(UserChange)
+     */
+    @Override
+    public void accept(@NotNull UserChange change) {
+        publish(change);
+    }
+
+    /**
+     * Delivers every change published since the last call as a single batch to each subscriber.
+     * If no change is pending, this method does nothing.
+     */
+    public void drain() {
+        if (pending.isEmpty()) return;
+
+        List<UserChange> batch = new ArrayList<>();
+        for (UserChange change; (change = pending.poll()) != null; ) batch.add(change);
+        List<UserChange> view = Collections.unmodifiableList(batch);
+
+        for (Subscription subscription : subscriptions) {
+            subscription.executor.execute(() -> {
+                try {
+                    if (subscription.active) subscription.listener.accept(view);
+                } catch (RuntimeException ex) {
+                    console.severe("A user change listener failed to handle {0} changes: {1}", view.size(), ex.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns whether at least one listener is subscribed to this feed.
+     *
+     * @return true if there are subscribers
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * A handle to a listener subscribed to a {@link UserChangeFeed}.
+     */
+    public final class Subscription
+    {
+        private final Executor executor;
+        private final Consumer<List<UserChange>> listener;
+        private volatile boolean active = true;
+
+        private Subscription(@NotNull Executor executor, @NotNull Consumer<List<UserChange>> listener) {
+            this.executor = executor;
+            this.listener = listener;
+        }
+
+        /**
+         * Unsubscribes the listener. Batches that have not been delivered yet are discarded.
+         */
+        public void cancel() {
+            active = false;
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Returns whether the listener is still subscribed.
+         *
+         * @return true if the subscription is active
+         */
+        public boolean isActive() {
+            return active;
+        }
+    }
+}
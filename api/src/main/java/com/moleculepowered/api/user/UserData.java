@@ -2,28 +2,36 @@ package com.moleculepowered.api.user;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.moleculepowered.api.exception.user.UserStorageException;
+import com.moleculepowered.api.user.storage.JsonFileStorage;
+import com.moleculepowered.api.user.storage.UserStorage;
+import com.moleculepowered.api.util.JsonUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * The core storage system for our {@link User} objects. This interface is designed
  * to provide the required methods needed to handle user data across different platforms.
+ *
+ * <p>Where the data is persisted is delegated to the {@link UserStorage} returned by {@link #getStorage()}.</p>
  */
 public interface UserData
 {
 
     /**
-     * Attempts to create a new user data file.
+     * Attempts to create a new user record.
      * <p>
-     * By default, this method will not create a user file if one already exists in the
-     * {@link #getDataFolder()}. Otherwise, this method will create one as usual.
+     * By default, this method will not create a user record if one already exists in the
+     * {@link #getStorage()}. Otherwise, this method will create one as usual.
      */
     void create();
 
     /**
-     * Deletes a user's data file if one exists; otherwise, this method will do nothing.
+     * Deletes a user's record if one exists; otherwise, this method will do nothing.
      */
     void delete();
 
@@ -36,7 +44,203 @@ public interface UserData
     <T> void update(T player);
 
     /**
-     * Used to add or update existing data with a new value.
+     * Writes any changes held in memory to this user's data file. If the data has not been
+     * modified since it was last written, this method will do nothing. By default, this method does
+     * nothing, as implementations that do not hold changes in memory write every change immediately.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Copies the changes held in memory so they may be written to storage in a batch, without holding
+     * this user's monitor. The user remains dirty until {@link #completeWrite(UserWrite)} is called,
+     * and every write the user performs itself waits until the prepared write has been completed or
+     * aborted, so it is never overwritten by the older copy. By default, this method returns null,
+     * so the user is skipped by batched flushes.
+     *
+     * @return a copy of the pending changes, or null if there is nothing to write
+     * @see UserManager#flushAll()
+     */
+    default @Nullable UserWrite prepareWrite() {
+        return null;
+    }
+
+    /**
+     * Marks the changes copied by {@link #prepareWrite()} as written. If this user has been changed
+     * since the write was prepared, they remain dirty so the newer changes are written later.
+     * By default, this method does nothing.
+     *
+     * @param write the committed write
+     */
+    default void completeWrite(@NotNull UserWrite write) {
+    }
+
+    /**
+     * Releases a write prepared by {@link #prepareWrite()} that could not be committed. This user
+     * remains dirty, so the changes are retried by the next flush. By default, this method does nothing.
+     *
+     * @param write the failed write
+     */
+    default void abortWrite(@NotNull UserWrite write) {
+    }
+
+    /**
+     * Applies several changes to this user as a single transaction. Every change made by the editor
+     * is written using one storage write, and reported as one {@link UserChange.Type#EDITED} change.
+     * If the editor throws, or the write fails, the record held in memory is rolled back to its
+     * state before the edit, and the exception is rethrown.
+     *
+     * <p>By default, the editor is applied to this user, followed by a {@link #flush()}. If the editor
+     * throws, or this user is still dirty once flushed, the record returned by {@link #getData()} is
+     * restored in place from a copy taken before the edit, as are the objects and arrays it holds.
+     * Other threads may observe the edit while it is in progress, and changes are reported one key
+     * at a time; platforms override this method to make the edit atomic.</p>
+     *
+     * <p>Example usage:</p>
+     * <pre>{@code
+     * user.edit(data -> {
+     *     data.increment("balance", -price);
+     *     data.setLong("last-transaction", System.currentTimeMillis());
+     *     data.setData("history", history);
+     * });
+     * }</pre>
+     *
+     * @param editor the function applying the changes
+     * @throws com.moleculepowered.api.exception.user.UserStorageException when the changes cannot be written
+     */
+    default void edit(@NotNull Consumer<? super UserData> editor) {
+        JsonObject data = getData();
+        JsonObject previous = JsonUtil.copy(data);
+        try {
+            editor.accept(this);
+            flush();
+            if (isDirty()) throw new UserStorageException("Failed to write the edited user data");
+        } catch (RuntimeException | Error ex) {
+
+            // RESTORE THE RECORD IN PLACE, AS IT MAY BE SHARED
+            JsonUtil.restore(data, previous);
+            throw ex;
+        }
+    }
+
+    /**
+     * Applies several changes to this user as a single transaction, without blocking the calling thread.
+     *
+     * @param editor the function applying the changes
+     * @return a future completed once the changes have been written
+     * @see #edit(Consumer)
+     */
+    default @NotNull CompletableFuture<Void> editAsync(@NotNull Consumer<? super UserData> editor) {
+        return UserIO.runAsync(() -> edit(editor));
+    }
+
+    /**
+     * Discards the record held in memory and reads it again from storage, typically because another
+     * server has written it. Pending changes are discarded, and no change is written back.
+     * By default, this method calls {@link #create()}.
+     */
+    default void reload() {
+        create();
+    }
+
+    /**
+     * Reloads or creates this user's record without blocking the calling thread.
+     *
+     * @return a future completed once the record has been loaded
+     * @see #create()
+     * @see UserIO
+     */
+    default @NotNull CompletableFuture<Void> createAsync() {
+        return UserIO.runAsync(this::create);
+    }
+
+    /**
+     * Deletes this user's record without blocking the calling thread.
+     *
+     * @return a future completed once the record has been deleted
+     * @see #delete()
+     * @see UserIO
+     */
+    default @NotNull CompletableFuture<Void> deleteAsync() {
+        return UserIO.runAsync(this::delete);
+    }
+
+    /**
+     * Updates this user's record using the provided player without blocking the calling thread.
+     *
+     * @param player the originating player
+     * @return a future completed once the record has been updated
+     * @see #update(Object)
+     * @see UserIO
+     */
+    default <T> @NotNull CompletableFuture<Void> updateAsync(T player) {
+        return UserIO.runAsync(() -> update(player));
+    }
+
+    /**
+     * Writes any pending changes to storage without blocking the calling thread.
+     *
+     * @return a future completed once the changes have been written
+     * @see #flush()
+     * @see UserIO
+     */
+    default @NotNull CompletableFuture<Void> saveAsync() {
+        return UserIO.runAsync(this::flush);
+    }
+
+    /**
+     * Adds or updates existing data without blocking the calling thread.
+     *
+     * @param key   the target key
+     * @param value the target value
+     * @return a future completed once the data has been assigned, and written unless write-behind mode is enabled
+     * @see #setData(String, Object)
+     * @see UserIO
+     */
+    default @NotNull CompletableFuture<Void> setDataAsync(@NotNull String key, Object value) {
+        return UserIO.runAsync(() -> setData(key, value));
+    }
+
+    /**
+     * Sets the listener notified of every mutation applied to this user, such as its creation,
+     * deletion, or a changed key. This is typically assigned by the {@link UserManager} handling this
+     * user, which forwards the changes to its {@link UserChangeFeed}. If this user's record was created
+     * before a listener was assigned, the creation is reported as soon as one is. By default, this
+     * method does nothing, meaning no change is reported.
+     *
+     * @param listener the change listener, or null to stop reporting changes
+     */
+    default void setChangeListener(@Nullable Consumer<UserChange> listener) {
+    }
+
+    /**
+     * Returns whether this user's data holds changes that have not yet been written to its data file.
+     * By default, this method returns false.
+     *
+     * @return true if there are unwritten changes
+     */
+    default boolean isDirty() {
+        return false;
+    }
+
+    /**
+     * Toggles write-behind mode for this user. When enabled, calls to {@link #setData(String, Object)}
+     * only mark the data as dirty and the change is written later by {@link #flush()}; otherwise every
+     * change is written to the data file immediately. By default, this method does nothing, and every
+     * change is written immediately.
+     *
+     * @param toggle whether write-behind mode should be enabled
+     */
+    default void setWriteBehind(boolean toggle) {
+    }
+
+    /**
+     * Used to add or update existing data with a new value. Numbers and booleans are stored as
+     * native JSON values, and a null value removes any data assigned to the key.
+     *
+     * <p>Please note that earlier versions stored a null value as the text {@code "null"}, keeping the
+     * key present; callers relying on the key remaining present should store a
+     * {@link com.google.gson.JsonNull} instead.</p>
      * <p>
      * NOTE: The value you provide must be one of the following data types:
      * {@link String}, {@link Number}, {@link Boolean}, {@link Character},
@@ -69,6 +273,300 @@ public interface UserData
         return getData(key, null);
     }
 
+    /**
+     * Stores an integer under the provided key as a native JSON number.
+     *
+     * @param key   the target key
+     * @param value the target value
+     */
+    default void setInt(@NotNull String key, int value) {
+        setData(key, value);
+    }
+
+    /**
+     * Stores a long under the provided key as a native JSON number.
+     *
+     * @param key   the target key
+     * @param value the target value
+     */
+    default void setLong(@NotNull String key, long value) {
+        setData(key, value);
+    }
+
+    /**
+     * Stores a double under the provided key as a native JSON number.
+     *
+     * @param key   the target key
+     * @param value the target value
+     */
+    default void setDouble(@NotNull String key, double value) {
+        setData(key, value);
+    }
+
+    /**
+     * Stores a boolean under the provided key as a native JSON boolean.
+     *
+     * @param key   the target key
+     * @param value the target value
+     */
+    default void setBoolean(@NotNull String key, boolean value) {
+        setData(key, value);
+    }
+
+    /**
+     * Returns the integer assigned to the provided key. If the key does not exist, or its value
+     * cannot be read as a number, the provided default value will be returned. By default, the text
+     * returned by {@link #getData(String, String)} is parsed.
+     *
+     * @param key the data key
+     * @param def the default value
+     * @return the integer assigned to the provided key
+     */
+    default int getInt(@NotNull String key, int def) {
+        String value = getData(key, null);
+        try {
+            return value != null ? Integer.parseInt(value) : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Returns the long assigned to the provided key. If the key does not exist, or its value
+     * cannot be read as a number, the provided default value will be returned. By default, the text
+     * returned by {@link #getData(String, String)} is parsed.
+     *
+     * @param key the data key
+     * @param def the default value
+     * @return the long assigned to the provided key
+     */
+    default long getLong(@NotNull String key, long def) {
+        String value = getData(key, null);
+        try {
+            return value != null ? Long.parseLong(value) : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Returns the double assigned to the provided key. If the key does not exist, or its value
+     * cannot be read as a number, the provided default value will be returned. By default, the text
+     * returned by {@link #getData(String, String)} is parsed.
+     *
+     * @param key the data key
+     * @param def the default value
+     * @return the double assigned to the provided key
+     */
+    default double getDouble(@NotNull String key, double def) {
+        String value = getData(key, null);
+        try {
+            return value != null ? Double.parseDouble(value) : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Returns the boolean assigned to the provided key. If the key does not exist, the provided
+     * default value will be returned. By default, the text returned by {@link #getData(String, String)}
+     * is parsed.
+     *
+     * @param key the data key
+     * @param def the default value
+     * @return the boolean assigned to the provided key
+     */
+    default boolean getBoolean(@NotNull String key, boolean def) {
+        String value = getData(key, null);
+        return value != null ? Boolean.parseBoolean(value) : def;
+    }
+
+    /**
+     * Atomically adds the provided delta to the number assigned to the provided key, treating a
+     * missing value as zero, and returns the result. By default, the value is read and written
+     * while holding this user's monitor, so it is atomic with respect to other increments.
+     *
+     * @param key   the target key
+     * @param delta the amount to add, which may be negative
+     * @return the updated value
+     */
+    default long increment(@NotNull String key, long delta) {
+        synchronized (this) {
+            long value = getLong(key, 0) + delta;
+            setLong(key, value);
+            return value;
+        }
+    }
+
+    /**
+     * Returns the value the provided key points to inside this user's record. The returned element
+     * is the one held by the record, so it should not be modified directly. By default, the key is
+     * resolved against {@link #getData()}.
+     *
+     * @param key the compiled key
+     * @return the value, or null if it is missing
+     * @see UserKey
+     */
+    default @Nullable JsonElement getElement(@NotNull UserKey key) {
+        return key.resolve(getData());
+    }
+
+    /**
+     * Assigns a value to the provided key, creating any missing parent object. The value follows the
+     * same rules as {@link #setData(String, Object)}, and a null value removes the key.
+     *
+     * <p>By default, the top-level value holding the key is copied, changed and assigned back using
+     * {@link #setData(String, Object)}, so the change is written like any other.</p>
+     *
+     * @param key   the compiled key
+     * @param value the target value
+     * @throws IllegalArgumentException when the value is not supported, or a parent is not an object
+     */
+    default void setData(@NotNull UserKey key, Object value) {
+        if (!key.isNested()) {
+            setData(key.getPath(), value);
+            return;
+        }
+
+        String top = key.getSegment(0);
+        JsonElement current = getData().get(top);
+        JsonObject holder = new JsonObject();
+        if (current != null) holder.add(top, JsonUtil.copy(current));
+
+        if (value != null) key.set(holder, JsonUtil.toElement(value));
+        else if (key.remove(holder) == null) return;
+        setData(top, holder.get(top));
+    }
+
+    /**
+     * Returns the text the provided key points to.
+     *
+     * @param key the compiled key
+     * @param def the default value
+     * @return the text, or the default value if the key is missing or null
+     */
+    default @Nullable String getData(@NotNull UserKey key, @Nullable String def) {
+        JsonElement value = getElement(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : def;
+    }
+
+    /**
+     * Returns the integer the provided key points to.
+     *
+     * @param key the compiled key
+     * @param def the default value
+     * @return the integer, or the default value if the key is missing or not a number
+     */
+    default int getInt(@NotNull UserKey key, int def) {
+        JsonElement value = getElement(key);
+        try {
+            return value != null && value.isJsonPrimitive() ? value.getAsInt() : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Returns the long the provided key points to.
+     *
+     * @param key the compiled key
+     * @param def the default value
+     * @return the long, or the default value if the key is missing or not a number
+     */
+    default long getLong(@NotNull UserKey key, long def) {
+        JsonElement value = getElement(key);
+        try {
+            return value != null && value.isJsonPrimitive() ? value.getAsLong() : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Returns the double the provided key points to.
+     *
+     * @param key the compiled key
+     * @param def the default value
+     * @return the double, or the default value if the key is missing or not a number
+     */
+    default double getDouble(@NotNull UserKey key, double def) {
+        JsonElement value = getElement(key);
+        try {
+            return value != null && value.isJsonPrimitive() ? value.getAsDouble() : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Returns the boolean the provided key points to.
+     *
+     * @param key the compiled key
+     * @param def the default value
+     * @return the boolean, or the default value if the key is missing
+     */
+    default boolean getBoolean(@NotNull UserKey key, boolean def) {
+        JsonElement value = getElement(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsBoolean() : def;
+    }
+
+    /**
+     * Stores an integer under the provided key as a native JSON number.
+     *
+     * @param key   the compiled key
+     * @param value the target value
+     */
+    default void setInt(@NotNull UserKey key, int value) {
+        setData(key, value);
+    }
+
+    /**
+     * Stores a long under the provided key as a native JSON number.
+     *
+     * @param key   the compiled key
+     * @param value the target value
+     */
+    default void setLong(@NotNull UserKey key, long value) {
+        setData(key, value);
+    }
+
+    /**
+     * Stores a double under the provided key as a native JSON number.
+     *
+     * @param key   the compiled key
+     * @param value the target value
+     */
+    default void setDouble(@NotNull UserKey key, double value) {
+        setData(key, value);
+    }
+
+    /**
+     * Stores a boolean under the provided key as a native JSON boolean.
+     *
+     * @param key   the compiled key
+     * @param value the target value
+     */
+    default void setBoolean(@NotNull UserKey key, boolean value) {
+        setData(key, value);
+    }
+
+    /**
+     * Atomically adds the provided delta to the number the provided key points to, treating a
+     * missing value as zero, and returns the result. By default, the value is read and written
+     * while holding this user's monitor, so it is atomic with respect to other increments.
+     *
+     * @param key   the compiled key
+     * @param delta the amount to add, which may be negative
+     * @return the updated value
+     */
+    default long increment(@NotNull UserKey key, long delta) {
+        synchronized (this) {
+            long value = getLong(key, 0) + delta;
+            setLong(key, value);
+            return value;
+        }
+    }
+
     /**
      * Returns the configuration assigned to this user. The behavior of this method, including autoload
      * features, may vary between platforms.
@@ -77,18 +575,35 @@ public interface UserData
      */
     @NotNull JsonObject getData();
 
+    /**
+     * Returns the storage used to persist this user's data. By default, this method throws an
+     * {@link UnsupportedOperationException}, as implementations predating storages persist their
+     * data on their own.
+     *
+     * @return the user storage
+     * @throws UnsupportedOperationException when this user's data is not persisted using a storage
+     */
+    default @NotNull UserStorage getStorage() {
+        throw new UnsupportedOperationException(getClass().getName() + " does not persist its data using a UserStorage");
+    }
+
     /**
      * Returns the data file associated with this user.
      *
      * @return the user data file
+     * @deprecated user data is no longer tied to a file; this method returns the location the record
+     * would use inside a {@link JsonFileStorage}. Use {@link #getStorage()} instead.
      */
+    @Deprecated
     @NotNull File getFile();
 
     /**
      * Returns the data folder where this user's data is stored.
      *
      * @return the user data folder
+     * @deprecated user data is no longer tied to a file. Use {@link #getStorage()} instead.
      */
+    @Deprecated
     default @NotNull File getDataFolder() {
         return getFile().getParentFile();
     }
@@ -0,0 +1,172 @@
+package com.moleculepowered.api.user;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The dedicated executor used to run user storage operations off the calling thread, such as the
+ * asynchronous methods provided by {@link UserData} and {@link UserManager}.
+ *
+ * <p>The executor uses a small, fixed number of daemon threads and a bounded queue. Once the queue
+ * is full, storage work is never run on the main thread: tasks submitted from the main thread, or
+ * from any thread while no main thread is registered, are rejected with a
+ * {@link RejectedExecutionException}, which {@link #runAsync(Runnable)} and {@link #supplyAsync(Supplier)}
+ * report as an exceptionally completed future. Other threads wait for room in the queue, slowing them
+ * down instead of letting pending writes pile up without limit, and tasks submitted by the executor's
+ * own threads are run directly.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserIO
+{
+    private static final int THREADS = Math.min(4, Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int QUEUE_SIZE = 4096;
+    private static final String THREAD_PREFIX = "Molecule User I/O #";
+    private static final AtomicInteger COUNTER = new AtomicInteger(), PENDING = new AtomicInteger();
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+        Thread thread = new Thread(runnable, THREAD_PREFIX + COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }, UserIO::saturated);
+    private static volatile Thread mainThread;
+    private static final Executor TRACKED = task -> {
+        PENDING.incrementAndGet();
+        try {
+            EXECUTOR.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    PENDING.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException ex) {
+            PENDING.decrementAndGet();
+            throw ex;
+        }
+    };
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private UserIO() {
+    }
+
+    /**
+     * Handles a task submitted while the queue is full, without ever running it on the main thread.
+     *
+     * @param task     the rejected task
+     * @param executor the saturated executor
+     */
+    private static void saturated(@NotNull Runnable task, @NotNull ThreadPoolExecutor executor) {
+        Thread current = Thread.currentThread();
+        if (executor.isShutdown()) throw new RejectedExecutionException("The user I/O executor has been shut down");
+
+        // A WORKER WAITING FOR ROOM COULD WAIT ON ITSELF, AND IS ALREADY OFF THE MAIN THREAD
+        if (current.getName().startsWith(THREAD_PREFIX)) {
+            task.run();
+            return;
+        }
+
+        Thread main = mainThread;
+        if (main == null || main == current) {
+            throw new RejectedExecutionException("The user I/O queue is full (" + QUEUE_SIZE + " pending tasks)");
+        }
+
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room in the user I/O queue", ex);
+        }
+    }
+
+    /**
+     * Registers the platform's main thread. Once registered, tasks submitted from other threads
+     * wait for room when the queue is full, while tasks submitted from the main thread are rejected.
+     * Platforms typically call this method from the main thread while enabling.
+     *
+     * @param thread the main thread, or null to reject every caller once the queue is full
+     */
+    public static void setMainThread(@Nullable Thread thread) {
+        mainThread = thread;
+    }
+
+    /**
+     * Returns the executor used to run user storage operations.
+     *
+     * @return the user I/O executor
+     */
+    public static @NotNull Executor executor() {
+        return TRACKED;
+    }
+
+    /**
+     * Runs the provided task on the user I/O executor. If the task cannot be queued, the returned
+     * future is completed exceptionally with a {@link RejectedExecutionException}, instead of the
+     * exception being thrown to the caller.
+     *
+     * @param task the task to run
+     * @return a future completed once the task has run
+     */
+    public static @NotNull CompletableFuture<Void> runAsync(@NotNull Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, TRACKED);
+        } catch (RejectedExecutionException ex) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+    }
+
+    /**
+     * Computes a value on the user I/O executor. If the task cannot be queued, the returned future
+     * is completed exceptionally with a {@link RejectedExecutionException}, instead of the exception
+     * being thrown to the caller.
+     *
+     * @param supplier the function computing the value
+     * @return a future completed with the computed value
+     */
+    public static <T> @NotNull CompletableFuture<T> supplyAsync(@NotNull Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, TRACKED);
+        } catch (RejectedExecutionException ex) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+    }
+
+    /**
+     * Waits until every submitted operation has completed, or the provided timeout expires. The
+     * executor remains usable afterwards. This method is typically called before a storage is
+     * closed, so no pending write is lost.
+     *
+     * @param timeout the maximum time to wait
+     * @return true if every operation completed in time
+     */
+    public static boolean awaitIdle(@NotNull Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (PENDING.get() > 0) {
+            if (System.nanoTime() >= deadline) return false;
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,225 @@
+package com.moleculepowered.api.user;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A compiled path to a value nested inside a user's record, such as {@code stats.pvp.kills}. The
+ * path is split into its segments once, when the key is created, so resolving it against a record
+ * only walks the nested objects, without parsing any text.
+ *
+ * <p>Keys are immutable and may be shared between threads; they are best kept in constants.
+ * Keys created from the same path are cached, so repeated calls to {@link #of(String)} return the
+ * same instance. Segments are separated by dots; a segment holding a dot itself may be appended
+ * using {@link #child(String)}.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * private static final UserKey PVP_KILLS = UserKey.of("stats.pvp.kills");
+ *
+ * long kills = user.increment(PVP_KILLS, 1);
+ * }</pre>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserKey
+{
+    private static final ConcurrentMap<String, UserKey> CACHE = new ConcurrentHashMap<>();
+    private static final int CACHE_LIMIT = 4096;
+    private final String path;
+    private final String[] segments;
+
+    /*
+    CONSTRUCTORS
+     */
+
+    private UserKey(@NotNull String path, @NotNull String[] segments) {
+        this.path = path;
+        this.segments = segments;
+    }
+
+    /**
+     * Returns the key compiled from the provided dot-separated path.
+     *
+     * @param path the path, such as {@code stats.pvp.kills}
+     * @return the compiled key
+     * @throws IllegalArgumentException when the path is empty or holds an empty segment
+     */
+    public static @NotNull UserKey of(@NotNull String path) {
+        UserKey key = CACHE.get(path);
+        if (key != null) return key;
+
+        key = new UserKey(path, parse(path));
+        if (CACHE.size() < CACHE_LIMIT) CACHE.putIfAbsent(path, key);
+        return key;
+    }
+
+    /**
+     * Splits the provided path on every dot, rejecting empty segments.
+     */
+    private static @NotNull String[] parse(@NotNull String path) {
+        int count = 1;
+        for (int i = 0; i < path.length(); i++) if (path.charAt(i) == '.') count++;
+
+        String[] segments = new String[count];
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int end = path.indexOf('.', start);
+            if (end < 0) end = path.length();
+            if (end == start) throw new IllegalArgumentException("Invalid user key path: \"" + path + "\"");
+
+            segments[i] = path.substring(start, end);
+            start = end + 1;
+        }
+        return segments;
+    }
+
+    /**
+     * Returns a key pointing to the provided segment, nested inside the value this key points to.
+     * The segment is used as is, so it may contain dots.
+     *
+     * @param segment the child segment
+     * @return the child key
+     * @throws IllegalArgumentException when the segment is empty
+     */
+    public @NotNull UserKey child(@NotNull String segment) {
+        if (segment.isEmpty()) throw new IllegalArgumentException("A user key segment cannot be empty");
+
+        String[] child = Arrays.copyOf(segments, segments.length + 1);
+        child[segments.length] = segment;
+        return new UserKey(path + "." + segment, child);
+    }
+
+    /*
+    RESOLUTION METHODS
+     */
+
+    /**
+     * Returns the value this key points to inside the provided record.
+     *
+     * @param root the record
+     * @return the value, or null if it, or one of its parents, is missing or not an object
+     */
+    public @Nullable JsonElement resolve(@NotNull JsonObject root) {
+        JsonObject parent = parent(root, false);
+        return parent != null ? parent.get(segments[segments.length - 1]) : null;
+    }
+
+    /**
+     * Assigns a value to this key inside the provided record, creating any missing parent object.
+     *
+     * @param root  the record
+     * @param value the value to assign
+     * @return the value previously assigned, or null if there was none
+     * @throws IllegalArgumentException when one of the parents holds a value that is not an object
+     */
+    public @Nullable JsonElement set(@NotNull JsonObject root, @NotNull JsonElement value) {
+        JsonObject parent = parent(root, true);
+        String last = segments[segments.length - 1];
+        JsonElement previous = parent.get(last);
+        parent.add(last, value);
+        return previous;
+    }
+
+    /**
+     * Removes the value this key points to from the provided record. Parent objects left empty are kept.
+     *
+     * @param root the record
+     * @return the removed value, or null if there was none
+     */
+    public @Nullable JsonElement remove(@NotNull JsonObject root) {
+        JsonObject parent = parent(root, false);
+        return parent != null ? parent.remove(segments[segments.length - 1]) : null;
+    }
+
+    /**
+     * Walks to the object holding the last segment of this key.
+     *
+     * @param root   the record
+     * @param create whether missing objects are created, in which case the result is never null
+     * @return the parent object, or null if it is missing and not created
+     */
+    private @Nullable JsonObject parent(@NotNull JsonObject root, boolean create) {
+        JsonObject current = root;
+        for (int i = 0; i < segments.length - 1; i++) {
+            JsonElement next = current.get(segments[i]);
+            if (next != null && next.isJsonObject()) {
+                current = next.getAsJsonObject();
+                continue;
+            }
+            if (!create) return null;
+
+            // NEVER REPLACE EXISTING DATA WITH AN OBJECT
+            if (next != null && !next.isJsonNull()) {
+                throw new IllegalArgumentException("Cannot assign \"" + path + "\", \"" + segments[i] + "\" is not an object");
+            }
+            JsonObject object = new JsonObject();
+            current.add(segments[i], object);
+            current = object;
+        }
+        return current;
+    }
+
+    /*
+    GETTER METHODS
+     */
+
+    /**
+     * Returns the dot-separated path of this key.
+     *
+     * @return the path
+     */
+    public @NotNull String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of segments in this key.
+     *
+     * @return the depth, which is 1 for a top-level key
+     */
+    public int getDepth() {
+        return segments.length;
+    }
+
+    /**
+     * Returns the segment at the provided depth.
+     *
+     * @param index the segment index, starting at 0 for the top-level key
+     * @return the segment
+     * @throws IndexOutOfBoundsException when the index is out of range
+     */
+    public @NotNull String getSegment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * Returns whether this key points inside a nested object, rather than to a top-level key.
+     *
+     * @return true if the key holds more than one segment
+     */
+    public boolean isNested() {
+        return segments.length > 1;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof UserKey && Arrays.equals(segments, ((UserKey) other).segments);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(segments);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -1,23 +1,846 @@
 package com.moleculepowered.api.user;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.moleculepowered.api.Console;
 import com.moleculepowered.api.model.Manager;
+import com.moleculepowered.api.user.storage.UserStorage;
+import com.moleculepowered.api.util.Time;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
  * A service manager designed to handle all tasks related to user management, allowing developers
  * to retrieve, add, and remove users from the user collection.
  *
+ * <p>Users are held in a concurrent residency map keyed by UUID, alongside a case-insensitive prefix
+ * index of every known name, so lookups by UUID, name or partial name are cheap and may safely be
+ * performed from any thread. Names remain indexed after a user is evicted, allowing offline users to
+ * be found and tab-completed without scanning storage.
+ * Iteration over the registry is weakly consistent: readers never block writers and never observe
+ * a {@link java.util.ConcurrentModificationException}. When lazy loading is enabled, users are only
+ * materialized the first time they are requested, and the residency map may be bounded by size and
+ * idle time, evicting cold users after flushing them. Hits, misses and evictions are counted and
+ * may be read using {@link #getStats()}.</p>
+ *
+ * <p>Every user handled by this manager is persisted using the {@link UserStorage} assigned to it.</p>
+ *
  * @author OMGitzFROST
  */
 public abstract class UserManager implements Manager
 {
-    protected final Set<User> users = new HashSet<>();
+    protected final ConcurrentMap<UUID, User> users = new ConcurrentHashMap<>();
+    private final UserNameIndex names = new UserNameIndex();
+    private final ConcurrentMap<UUID, Long> lastAccess = new ConcurrentHashMap<>();
+    private final Set<UUID> evicting = ConcurrentHashMap.newKeySet();
+    protected long flushInterval, idleTimeout;
+    protected int maximumSize;
+    private boolean lazyLoading;
+    private ScheduledExecutorService scheduler;
+    private volatile UserStorage storage;
+    private volatile Executor mainThreadExecutor = Runnable::run;
+    private volatile UserBloomFilter knownUsers;
+    private volatile boolean knownUsersComplete, sharedStorage;
+    private volatile OffHeapUserCache offHeapCache;
+    private final UserChangeFeed changes;
+    protected final Console console;
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder(), writeBackFailures = new LongAdder();
+
+    /*
+    CONSTRUCTOR
+     */
+
+    /**
+     * Creates a user manager that persists its users using the provided storage.
+     *
+     * @param storage the default user storage
+     */
+    protected UserManager(@NotNull UserStorage storage) {
+        this(storage, new Console(UserManager.class.getSimpleName()) {});
+    }
+
+    /**
+     * Creates a user manager that persists its users using the provided storage, and reports
+     * storage and listener failures to the provided console.
+     *
+     * @param storage the default user storage
+     * @param console the console failures are reported to
+     */
+    protected UserManager(@NotNull UserStorage storage, @NotNull Console console) {
+        this.storage = storage;
+        this.console = console;
+        this.changes = new UserChangeFeed(console);
+    }
+
+    /*
+    LIFECYCLE METHODS
+     */
+
+    /**
+     * Starts the background flusher and eviction tasks when they are enabled. Platform implementations
+     * overriding this method should call {@code super.onEnable()} once their users are loaded.
+     *
+     * @see #setFlushInterval(long)
+     * @see #setIdleTimeout(long)
+     */
+    @Override
+    public void onEnable() {
+        scheduleTasks();
+    }
+
+    /**
+     * Stops the background tasks, writes every pending change to storage and closes the storage,
+     * ensuring no user data is lost when the platform shuts down.
+     */
+    @Override
+    public void onDisable() {
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdown();
+                scheduler = null;
+            }
+        }
+
+        // LET PENDING ASYNCHRONOUS OPERATIONS FINISH BEFORE THE STORAGE IS CLOSED
+        UserIO.awaitIdle(Duration.ofSeconds(30));
+        flushAll();
+        try {
+            storage.close();
+        } catch (RuntimeException ex) {
+            console.severe("Failed to close the user storage: {0}", ex.getMessage());
+        }
+    }
+
+    /*
+    STORAGE METHODS
+     */
+
+    /**
+     * Sets the storage used to persist users handled by this manager. Please note that the storage
+     * should be assigned before the manager is enabled, as users that are already loaded keep
+     * the storage they were created with.
+     *
+     * @param storage the target storage
+     * @return An instance of this manager
+     */
+    public @NotNull UserManager setStorage(@NotNull UserStorage storage) {
+        this.storage = storage;
+        return this;
+    }
+
+    /**
+     * Returns the storage used to persist users handled by this manager.
+     *
+     * @return the user storage
+     */
+    public @NotNull UserStorage getStorage() {
+        return storage;
+    }
+
+    /*
+    LOADING METHODS
+     */
+
+    /**
+     * Loads a user that is not currently resident in this manager. This method is called whenever a
+     * lookup misses, allowing platforms to materialize users on demand. By default, this method
+     * returns null, meaning the user is unknown.
+     *
+     * @param uuid the target UUID
+     * @return the loaded user, or null if no such user exists
+     */
+    protected @Nullable User loadUser(@NotNull UUID uuid) {
+        return null;
+    }
+
+    /**
+     * Loads a user that is not currently resident in this manager, using their name. This method is
+     * called whenever a lookup by name misses. By default, this method returns null.
+     *
+     * @param name the target name
+     * @return the loaded user, or null if no such user exists
+     */
+    protected @Nullable User loadUser(@NotNull String name) {
+        return null;
+    }
+
+    /**
+     * Returns whether a user may currently be evicted from this manager. Platforms typically
+     * override this method to keep online users resident. By default, every user is evictable.
+     *
+     * @param user the target user
+     * @return true if the user may be evicted
+     */
+    protected boolean isEvictable(@NotNull User user) {
+        return true;
+    }
+
+    /**
+     * Toggles lazy loading for this manager. When enabled, platforms should not load every known user
+     * when the manager is enabled; instead, users are loaded on their first lookup.
+     *
+     * @param toggle whether lazy loading should be enabled
+     * @return An instance of this manager
+     */
+    public @NotNull UserManager setLazyLoading(boolean toggle) {
+        this.lazyLoading = toggle;
+        return this;
+    }
+
+    /**
+     * Returns whether this manager loads its users lazily.
+     *
+     * @return true if lazy loading is enabled
+     */
+    public boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    /*
+    KNOWN USER METHODS
+     */
+
+    /**
+     * Sets the Bloom filter holding the UUIDs and names of every user known to this server. Users
+     * added to this manager are added to the filter as well, but lookups only trust it once
+     * {@link #setKnownUsersComplete(boolean)} has been called, as the filter may still be built
+     * in the background.
+     *
+     * @param filter the known users filter, or null to disable it
+     * @return this manager
+     */
+    public @NotNull UserManager setKnownUsers(@Nullable UserBloomFilter filter) {
+        this.knownUsersComplete = false;
+        this.knownUsers = filter;
+        return this;
+    }
+
+    /**
+     * Sets whether the known users filter holds every user known to this server. Once complete,
+     * lookups of users missing from the filter return immediately, without touching the registry
+     * or storage.
+     *
+     * @param toggle whether the filter is complete
+     * @return this manager
+     */
+    public @NotNull UserManager setKnownUsersComplete(boolean toggle) {
+        this.knownUsersComplete = toggle;
+        return this;
+    }
+
+    /**
+     * Sets whether the storage of this manager is shared with other servers, which may create users
+     * this server never sees. When shared, the known users filter can no longer rule a user out on its
+     * own: a UUID missing from the filter is checked against the storage, and added to the filter if
+     * found, while names missing from the filter are always looked up. This is enabled automatically
+     * by {@link com.moleculepowered.api.user.sync.UserInvalidationBus#start()}.
+     *
+     * @param toggle whether the storage is shared
+     * @return this manager
+     */
+    public @NotNull UserManager setSharedStorage(boolean toggle) {
+        this.sharedStorage = toggle;
+        return this;
+    }
+
+    /**
+     * Returns whether the storage of this manager is shared with other servers.
+     *
+     * @return true if the storage is shared
+     */
+    public boolean isSharedStorage() {
+        return sharedStorage;
+    }
+
+    /**
+     * Returns the Bloom filter holding the UUIDs and names of every user known to this server.
+     *
+     * @return the known users filter, or null if disabled
+     */
+    public @Nullable UserBloomFilter getKnownUsers() {
+        return knownUsers;
+    }
+
+    /**
+     * Records a user as known to this server, so they are never reported as unknown. Platforms
+     * should call this method before looking up a player joining for the first time.
+     *
+     * @param uuid the user's UUID
+     * @param name the user's name, if known
+     */
+    public void markKnown(@NotNull UUID uuid, @Nullable String name) {
+        UserBloomFilter filter = knownUsers;
+        if (filter == null) return;
+
+        filter.put(uuid);
+        if (name != null) filter.put(name);
+    }
+
+    /**
+     * Returns whether the provided UUID may belong to a user known to this server. A false result is
+     * always correct, and is answered by the known users filter without touching the registry or storage.
+     * If the filter is disabled or incomplete, this method returns true. If the storage is shared, a
+     * UUID missing from the filter is checked against the storage instead.
+     *
+     * @param uuid the target UUID
+     * @return false if the user is definitely unknown
+     * @see #setSharedStorage(boolean)
+     */
+    public boolean isKnown(@NotNull UUID uuid) {
+        UserBloomFilter filter = knownUsers;
+        if (filter == null || !knownUsersComplete || filter.mightContain(uuid)) return true;
+        if (!sharedStorage) return false;
+
+        // ANOTHER SERVER MAY HAVE CREATED THE USER, SO ONLY THE STORAGE CAN RULE THEM OUT
+        try {
+            if (!storage.exists(uuid)) return false;
+        } catch (RuntimeException ex) {
+            console.warning("Failed to check whether user {0} exists: {1}", uuid, ex.getMessage());
+        }
+        filter.put(uuid);
+        return true;
+    }
+
+    /**
+     * Returns whether the provided name may belong to a user known to this server, ignoring case.
+     * A false result is always correct, and is answered by the known users filter without touching
+     * the registry or storage. If the filter is disabled or incomplete, or the storage is shared,
+     * this method returns true.
+     *
+     * @param name the target name
+     * @return false if the user is definitely unknown
+     * @see #setSharedStorage(boolean)
+     */
+    public boolean isKnown(@NotNull String name) {
+        UserBloomFilter filter = knownUsers;
+        return filter == null || !knownUsersComplete || sharedStorage || filter.mightContain(name);
+    }
+
+    /*
+    OFF-HEAP METHODS
+     */
+
+    /**
+     * Sets the off-heap tier holding the metadata of users that are not resident. Users are written
+     * into the tier when they are added to this manager and again when they leave it, so the name,
+     * locale, last-seen time and statistics of evicted users can be read without loading them.
+     * Combined with lazy loading and a size limit, this keeps heap usage flat as the number of
+     * players grows.
+     *
+     * @param cache the off-heap cache, or null to disable it
+     * @return this manager
+     */
+    public @NotNull UserManager setOffHeapCache(@Nullable OffHeapUserCache cache) {
+        this.offHeapCache = cache;
+        return this;
+    }
+
+    /**
+     * Returns the off-heap tier holding the metadata of users that are not resident.
+     *
+     * @return the off-heap cache, or null if disabled
+     */
+    public @Nullable OffHeapUserCache getOffHeapCache() {
+        return offHeapCache;
+    }
+
+    /**
+     * Writes the metadata of a user into the off-heap tier, if enabled.
+     *
+     * @param user     the target user
+     * @param lastSeen the time the user was last accessed
+     */
+    private void demote(@NotNull User user, long lastSeen) {
+        OffHeapUserCache cache = offHeapCache;
+        if (cache == null) return;
+
+        try {
+            cache.put(user, lastSeen);
+        } catch (RuntimeException ex) {
+            console.warning("Failed to move user {0} to the off-heap cache: {1}", user.getUniqueId(), ex.getMessage());
+        }
+    }
+
+    /*
+    RESIDENCY METHODS
+     */
+
+    /**
+     * Sets the maximum amount of users that may be resident in this manager at once. When this limit
+     * is exceeded, the least recently accessed users are flushed and evicted on the {@link UserIO}
+     * executor, remaining resident until their changes have been written. A size of zero means the
+     * amount of resident users is unbounded.
+     *
+     * @param size the maximum amount of resident users
+     * @return An instance of this manager
+     */
+    public @NotNull UserManager setMaximumSize(int size) {
+        this.maximumSize = Math.max(0, size);
+        evictOverflow(UserIO.executor());
+        return this;
+    }
+
+    /**
+     * Sets the amount of time a user may remain unused before they are flushed and evicted from this
+     * manager. An idle timeout of zero means users are never evicted for being idle.
+     *
+     * @param input The target timeout, for example "30m"
+     * @return An instance of this manager
+     */
+    public @NotNull UserManager setIdleTimeout(@Nullable String input) {
+        if (input != null) {
+            this.idleTimeout = Math.max(0, Time.parseInterval(input));
+            scheduleTasks();
+        }
+        return this;
+    }
+
+    /**
+     * Sets the amount of time a user may remain unused before they are flushed and evicted.
+     *
+     * @param input The target timeout
+     * @return An instance of this manager
+     * @see #setIdleTimeout(String)
+     */
+    public @NotNull UserManager setIdleTimeout(@NotNull Duration input) {
+        return setIdleTimeout(input.toMillis());
+    }
+
+    /**
+     * Sets the amount of time, in milliseconds, a user may remain unused before they are flushed and evicted.
+     *
+     * @param input The target timeout in milliseconds
+     * @return An instance of this manager
+     * @see #setIdleTimeout(String)
+     */
+    public @NotNull UserManager setIdleTimeout(long input) {
+        this.idleTimeout = Math.max(0, input / 50);
+        scheduleTasks();
+        return this;
+    }
+
+    /**
+     * Evicts every user that has exceeded the idle timeout, as well as the least recently accessed
+     * users when the maximum size has been exceeded. Evicted users are flushed before being released.
+     * This method is called periodically when an idle timeout is configured.
+     */
+    public void cleanUp() {
+        if (idleTimeout > 0) {
+            long deadline = System.currentTimeMillis() - idleTimeout * 50;
+
+            for (Map.Entry<UUID, User> entry : users.entrySet()) {
+                if (lastAccess.getOrDefault(entry.getKey(), 0L) > deadline) continue;
+                if (isEvictable(entry.getValue())) evict(entry.getKey(), entry.getValue());
+            }
+        }
+        evictOverflow(Runnable::run);
+    }
+
+    /**
+     * Evicts the least recently accessed users until the maximum size is respected. Only the
+     * excess amount of users is selected, keeping this operation linear in the registry size.
+     *
+     * <p>Each selected user is flushed and evicted using the provided executor, so callers such as
+     * {@link #addUser(User)}, which usually run on the main thread, never wait on storage. Users
+     * remain resident until their eviction completes, and are not selected again in the meantime.
+     * If the executor rejects an eviction, the user is left resident and selected again later.</p>
+     *
+     * @param executor the executor running each eviction
+     */
+    private void evictOverflow(@NotNull Executor executor) {
+        int excess = maximumSize > 0 ? users.size() - evicting.size() - maximumSize : 0;
+        if (excess <= 0) return;
+
+        // KEEP THE OLDEST EXCESS ENTRIES, WITH THE MOST RECENT OF THEM AT THE HEAD
+        Comparator<Map.Entry<UUID, Long>> newestFirst = Map.Entry.comparingByValue(Comparator.reverseOrder());
+        PriorityQueue<Map.Entry<UUID, Long>> oldest = new PriorityQueue<>(excess, newestFirst);
+
+        for (Map.Entry<UUID, User> entry : users.entrySet()) {
+            if (evicting.contains(entry.getKey()) || !isEvictable(entry.getValue())) continue;
+
+            long accessed = lastAccess.getOrDefault(entry.getKey(), 0L);
+            if (oldest.size() < excess) oldest.add(new AbstractMap.SimpleEntry<>(entry.getKey(), accessed));
+            else if (oldest.peek().getValue() > accessed) {
+                oldest.poll();
+                oldest.add(new AbstractMap.SimpleEntry<>(entry.getKey(), accessed));
+            }
+        }
+
+        for (Map.Entry<UUID, Long> entry : oldest) {
+            UUID uuid = entry.getKey();
+            User user = users.get(uuid);
+            if (user == null || !evicting.add(uuid)) continue;
+
+            try {
+                executor.execute(() -> {
+                    try {
+                        evict(uuid, user);
+                    } finally {
+                        evicting.remove(uuid);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                evicting.remove(uuid);
+            }
+        }
+    }
+
+    /**
+     * Writes any pending changes of a user, then removes them from the registry. If the changes
+     * cannot be written, the user remains resident so their eviction is retried later, instead of
+     * discarding their changes. Nothing happens if the user was replaced or removed in the meantime.
+     *
+     * @param uuid the user's UUID
+     * @param user the user to evict
+     */
+    private void evict(@NotNull UUID uuid, @NotNull User user) {
+        release(user);
+        if (user.isDirty()) {
+            writeBackFailures.increment();
+            return;
+        }
+
+        if (users.remove(uuid, user)) {
+            unindex(uuid, user);
+            evictions.increment();
+
+            // WRITE ANY CHANGE MADE WHILE THE USER WAS BEING REMOVED
+            release(user);
+        }
+    }
+
+    /**
+     * Writes any pending changes of a user being evicted or removed from this manager.
+     *
+     * @param user the released user
+     */
+    private void release(@NotNull User user) {
+        try {
+            if (user.isDirty()) user.flush();
+        } catch (RuntimeException ex) {
+            console.severe("Failed to write the pending changes of user {0}: {1}", user.getUniqueId(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns a snapshot of the hits, misses and evictions counted by this manager.
+     *
+     * @return the current statistics
+     */
+    public @NotNull UserCacheStats getStats() {
+        return new UserCacheStats(hits.sum(), misses.sum(), evictions.sum(), writeBackFailures.sum(), users.size());
+    }
+
+    /**
+     * Resets every counter reported by {@link #getStats()} to zero.
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        writeBackFailures.reset();
+    }
+
+    /*
+    WRITE-BEHIND METHODS
+     */
+
+    /**
+     * Sets the interval used to flush pending user changes to storage. When the interval is greater
+     * than zero, users handled by this manager operate in write-behind mode, meaning changes are kept
+     * in memory and coalesced into a single write per user for each interval. An interval of zero
+     * writes every change immediately.
+     *
+     * @param input The target interval, for example "5s"
+     * @return An instance of this manager
+     */
+    public @NotNull UserManager setFlushInterval(@Nullable String input) {
+        if (input != null) setFlushIntervalTicks(Time.parseInterval(input));
+        return this;
+    }
+
+    /**
+     * Sets the interval used to flush pending user changes to storage.
+     *
+     * @param input The target interval
+     * @return An instance of this manager
+     * @see #setFlushInterval(String)
+     */
+    public @NotNull UserManager setFlushInterval(@NotNull Duration input) {
+        setFlushIntervalTicks(input.toMillis() / 50);
+        return this;
+    }
+
+    /**
+     * Sets the interval, in milliseconds, used to flush pending user changes to storage.
+     *
+     * @param input The target interval in milliseconds
+     * @return An instance of this manager
+     * @see #setFlushInterval(String)
+     */
+    public @NotNull UserManager setFlushInterval(long input) {
+        setFlushIntervalTicks(input / 50);
+        return this;
+    }
+
+    /**
+     * Applies the new flush interval to every user handled by this manager.
+     *
+     * @param ticks the interval in ticks
+     */
+    private void setFlushIntervalTicks(long ticks) {
+        this.flushInterval = Math.max(0, ticks);
+        users.values().forEach(user -> user.setWriteBehind(isWriteBehind()));
+        scheduleTasks();
+    }
+
+    /**
+     * (Re)schedules the background flusher and eviction tasks using the current settings. When
+     * neither task is enabled, any running scheduler is stopped instead.
+     */
+    private synchronized void scheduleTasks() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+        if (!isWriteBehind() && idleTimeout <= 0) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Molecule User Maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (isWriteBehind()) {
+            scheduler.scheduleWithFixedDelay(this::flushAll, flushInterval * 50, flushInterval * 50, TimeUnit.MILLISECONDS);
+        }
+        if (idleTimeout > 0) {
+            long period = Math.min(idleTimeout * 50, TimeUnit.MINUTES.toMillis(1));
+            scheduler.scheduleWithFixedDelay(this::cleanUp, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns whether users handled by this manager are operating in write-behind mode.
+     *
+     * @return true if changes are written in the background
+     */
+    public boolean isWriteBehind() {
+        return flushInterval > 0;
+    }
+
+    /**
+     * Writes the pending changes of every user handled by this manager to storage. Users without
+     * pending changes are skipped, and the remaining writes are grouped into one batch for each
+     * storage, as each user is written to the storage it holds, or to the storage of this manager
+     * if it holds none.
+     *
+     * <p>The pending changes of each user are copied first, under that user's monitor, and the copies
+     * are then written with no user monitor held, so the batch never waits on a user while holding
+     * the storage. Until its copy is written, a user's own writes wait for it, and copies discarded
+     * in the meantime, for example by a deletion, are skipped. Users are only marked clean once the
+     * whole batch has been committed; if it fails, they remain dirty and are retried by the next flush.
+     * A failing storage does not prevent the batches of other storages from being written.</p>
+     */
+    public void flushAll() {
+        Map<UserStorage, Map<User, UserWrite>> batches = new LinkedHashMap<>();
+        for (User user : users.values()) {
+            UserWrite write = user.prepareWrite();
+            if (write != null) batches.computeIfAbsent(storageOf(user), target -> new LinkedHashMap<>()).put(user, write);
+        }
+        batches.forEach(this::flush);
+    }
+
+    /**
+     * Writes a group of prepared writes to the provided storage as a single batch, then marks each
+     * user as written, or keeps them dirty if the batch fails.
+     *
+     * @param target the storage receiving the writes
+     * @param writes the prepared write of each user
+     */
+    private void flush(@NotNull UserStorage target, @NotNull Map<User, UserWrite> writes) {
+        try {
+            target.batch(() -> {
+                for (UserWrite write : writes.values()) {
+                    if (!write.isDiscarded()) target.save(write.getUniqueId(), write.getData());
+                }
+            });
+        } catch (RuntimeException ex) {
+            console.severe("Failed to write {0} users, they are kept for the next flush: {1}", writes.size(), ex.getMessage());
+            writes.forEach(User::abortWrite);
+            return;
+        }
+        writes.forEach(User::completeWrite);
+    }
+
+    /**
+     * Returns the storage the provided user is persisted with, or the storage of this manager if
+     * the user does not persist its data using a storage.
+     *
+     * @param user the target user
+     * @return the user's storage
+     */
+    private @NotNull UserStorage storageOf(@NotNull User user) {
+        try {
+            return user.getStorage();
+        } catch (UnsupportedOperationException ex) {
+            return storage;
+        }
+    }
+
+    /*
+    ASYNCHRONOUS METHODS
+     */
+
+    /**
+     * Returns the user assigned to the provided UUID without blocking the calling thread. If the user
+     * is not resident, they are loaded on the {@link UserIO} executor.
+     *
+     * @param uuid the target UUID
+     * @return a future completed with the user, or with null if they are unknown
+     */
+    public @NotNull CompletableFuture<User> loadAsync(@NotNull UUID uuid) {
+        if (!isKnown(uuid)) return CompletableFuture.completedFuture(null);
+
+        User user = users.get(uuid);
+        if (user != null) {
+            hits.increment();
+            lastAccess.put(uuid, System.currentTimeMillis());
+            return CompletableFuture.completedFuture(user);
+        }
+        return UserIO.supplyAsync(() -> lookup(uuid));
+    }
+
+    /**
+     * Returns the user assigned to the provided name without blocking the calling thread. If the user
+     * is not resident, they are loaded on the {@link UserIO} executor.
+     *
+     * @param name the target name
+     * @return a future completed with the user, or with null if they are unknown
+     */
+    public @NotNull CompletableFuture<User> loadAsync(@NotNull String name) {
+        return UserIO.supplyAsync(() -> findUser(name).orElse(null));
+    }
+
+    /**
+     * Writes the pending changes of every user to storage without blocking the calling thread.
+     *
+     * @return a future completed once every change has been written
+     * @see #flushAll()
+     */
+    public @NotNull CompletableFuture<Void> saveAllAsync() {
+        return UserIO.runAsync(this::flushAll);
+    }
+
+    /**
+     * Deletes the record of the provided user and removes them from this manager, without blocking
+     * the calling thread.
+     *
+     * @param user the target user
+     * @return a future completed once the user has been deleted
+     */
+    public @NotNull CompletableFuture<Void> deleteAsync(@NotNull User user) {
+        return UserIO.runAsync(() -> {
+            user.delete();
+            removeUser(user);
+            names.remove(user.getUniqueId());
+            if (offHeapCache != null) offHeapCache.remove(user.getUniqueId());
+        });
+    }
+
+    /**
+     * Returns a future completed with the same result as the provided one, but on the platform's main
+     * thread, allowing follow-up stages to safely interact with the platform.
+     *
+     * <p>Example usage:</p>
+     * <pre>{@code
+     * userManager.onMainThread(userManager.loadAsync(uuid))
+     *         .thenAccept(user -> player.sendMessage("Welcome back, " + user.getName()));
+     * }</pre>
+     *
+     * @param future the source future
+     * @param <T>    the result type
+     * @return a future completed on the main thread
+     */
+    public <T> @NotNull CompletableFuture<T> onMainThread(@NotNull CompletableFuture<T> future) {
+        return future.whenCompleteAsync((result, error) -> {
+        }, mainThreadExecutor);
+    }
+
+    /**
+     * Sets the executor used to deliver completions back to the platform's main thread. By default,
+     * completions are delivered on the thread completing the operation.
+     *
+     * @param executor the main thread executor
+     * @return An instance of this manager
+     */
+    public @NotNull UserManager setMainThreadExecutor(@NotNull Executor executor) {
+        this.mainThreadExecutor = executor;
+        return this;
+    }
+
+    /*
+    CHANGE METHODS
+     */
+
+    /**
+     * Subscribes a listener to the mutations applied to the users handled by this manager. Changes
+     * are delivered in batches, once per call to {@link #dispatchChanges()}, on the provided executor.
+     *
+     * @param executor the executor each batch is delivered on
+     * @param listener the listener receiving each batch
+     * @return the subscription, which may be used to unsubscribe
+     * @see UserChangeFeed
+     */
+    public @NotNull UserChangeFeed.Subscription subscribe(@NotNull Executor executor, @NotNull Consumer<List<UserChange>> listener) {
+        return changes.subscribe(executor, listener);
+    }
+
+    /**
+     * Delivers every change published since the last call to the subscribers of this manager.
+     * Platforms call this method once per server tick.
+     */
+    public void dispatchChanges() {
+        changes.drain();
+    }
+
+    /**
+     * Returns the feed receiving the mutations applied to the users handled by this manager.
+     *
+     * @return the change feed
+     */
+    public @NotNull UserChangeFeed getChangeFeed() {
+        return changes;
+    }
+
+    /*
+    COLLECTION METHODS
+     */
 
     /**
      * Adds a new user to the user collection. This method returns true if the user was added
@@ -27,29 +850,268 @@ public abstract class UserManager implements Manager
      * @return true if the user was added without fail
      */
     public boolean addUser(@NotNull User user) {
-        return users.add(user);
+        UUID uuid = user.getUniqueId();
+        user.setWriteBehind(isWriteBehind());
+
+        lastAccess.put(uuid, System.currentTimeMillis());
+        if (users.putIfAbsent(uuid, user) != null) return false;
+        indexName(uuid, user);
+        demote(user, System.currentTimeMillis());
+        user.setChangeListener(changes);
+
+        evictOverflow(UserIO.executor());
+        return true;
+    }
+
+    /**
+     * Adds a group of users to the user collection in a single step, typically the result of a
+     * bulk load. Users that are already resident are skipped, and the size limit is enforced once
+     * after every user has been published.
+     *
+     * @param loaded the users to add
+     * @return the number of users that were added
+     */
+    public int addUsers(@NotNull Collection<? extends User> loaded) {
+        long now = System.currentTimeMillis();
+        boolean writeBehind = isWriteBehind();
+        int added = 0;
+
+        for (User user : loaded) {
+            UUID uuid = user.getUniqueId();
+            user.setWriteBehind(writeBehind);
+
+            lastAccess.put(uuid, now);
+            if (users.putIfAbsent(uuid, user) != null) continue;
+            indexName(uuid, user);
+            demote(user, now);
+            user.setChangeListener(changes);
+            added++;
+        }
+
+        evictOverflow(UserIO.executor());
+        return added;
     }
 
     /**
      * Removes a user from the user collection. This method returns true if the user was removed
      * without failure, otherwise it returns false.
      *
+     * <p>Pending changes are written first. If they cannot be written, the user remains resident,
+     * so their changes are not lost, a write-back failure is counted, and false is returned; the
+     * user may then be removed by a later call, or evicted once idle.</p>
+     *
      * @param user the target user
      * @return true if the user was removed without fail
      */
     public boolean removeUser(@NotNull User user) {
-        return users.remove(user);
+        release(user);
+        if (user.isDirty()) {
+            writeBackFailures.increment();
+            return false;
+        }
+        UUID uuid = user.getUniqueId();
+
+        if (!users.remove(uuid, user)) return false;
+        unindex(uuid, user);
+
+        // WRITE ANY CHANGE MADE WHILE THE USER WAS BEING REMOVED
+        release(user);
+        return true;
+    }
+
+    /**
+     * Updates the name index for a resident user whose name has changed. Lookups by name remain
+     * correct without calling this method, but stale entries are only repaired once they are hit.
+     *
+     * @param user the renamed user
+     */
+    public void reindex(@NotNull User user) {
+        UUID uuid = user.getUniqueId();
+        if (users.get(uuid) != user) return;
+        indexName(uuid, user);
+    }
+
+    /**
+     * Discards the cached state of a user whose record has been changed outside this manager, for
+     * example by another server sharing the same storage. A resident user is reloaded from storage,
+     * while a deleted user is removed without being flushed, so their record is not recreated.
+     * Changes the user held that were not yet written are discarded in both cases, and a warning
+     * is logged.
+     *
+     * <p>If the user is not resident, their indexed name and off-heap metadata are refreshed
+     * instead: a deleted user is removed from both, while a changed user's off-heap entry is dropped
+     * and their name is read again from storage, on the {@link UserIO} executor. A changed user is
+     * also added to the known users filter, since they may have been created by another server.</p>
+     *
+     * @param uuid    the user's UUID
+     * @param deleted whether the record has been deleted
+     * @see com.moleculepowered.api.user.sync.UserInvalidationBus
+     */
+    public void invalidate(@NotNull UUID uuid, boolean deleted) {
+        if (!deleted) markKnown(uuid, null);
+
+        User user = users.get(uuid);
+        if (user == null) {
+            refresh(uuid, deleted);
+            return;
+        }
+
+        if (user.isDirty()) {
+            console.warning("Discarding unwritten changes of user {0}, their record was {1} by another server",
+                    uuid, deleted ? "deleted" : "changed");
+        }
+        if (!deleted) {
+            user.reload();
+            reindex(user);
+            return;
+        }
+        if (users.remove(uuid, user)) {
+            unindex(uuid, user);
+            names.remove(uuid);
+            if (offHeapCache != null) offHeapCache.remove(uuid);
+        }
+    }
+
+    /**
+     * Refreshes the indexed name and off-heap metadata of a user that is not resident, after their
+     * record was changed outside this manager. The name of a changed user is read from storage and
+     * indexed, even if they were not indexed before, so users created by another server may be found
+     * by name.
+     *
+     * @param uuid    the user's UUID
+     * @param deleted whether the record has been deleted
+     */
+    private void refresh(@NotNull UUID uuid, boolean deleted) {
+        OffHeapUserCache cache = offHeapCache;
+        if (cache != null) cache.remove(uuid);
+        if (deleted) {
+            names.remove(uuid);
+            return;
+        }
+
+        try {
+            UserIO.executor().execute(() -> {
+                try {
+                    JsonObject record = storage.load(uuid);
+                    JsonElement name = record != null ? record.get("name") : null;
+                    if (record == null) names.remove(uuid);
+                    else if (name != null && name.isJsonPrimitive() && !users.containsKey(uuid)) indexName(uuid, name.getAsString());
+                } catch (RuntimeException ex) {
+                    console.warning("Failed to refresh the indexed name of user {0}: {1}", uuid, ex.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // A STALE NAME IS REPAIRED ONCE IT IS LOOKED UP, SO THE REFRESH MAY BE SKIPPED
+            console.debug("Skipped refreshing the indexed name of {0}: {1}", uuid, ex.getMessage());
+        }
+    }
+
+    /**
+     * Adds the name of a user that is not resident to the name index, allowing them to be found
+     * by name or prefix without being loaded. Platforms typically call this method for every
+     * player known to the server when lazy loading is enabled.
+     *
+     * @param uuid the user's UUID
+     * @param name the user's name
+     */
+    public void indexName(@NotNull UUID uuid, @NotNull String name) {
+        names.put(uuid, name);
+        markKnown(uuid, name);
+    }
+
+    /**
+     * Adds the name of a resident user to the name index and known users filter. Users whose name is
+     * unknown are only added to the filter, so they remain loadable by UUID.
+     *
+     * @param uuid the user's UUID
+     * @param user the indexed user
+     */
+    private void indexName(@NotNull UUID uuid, @NotNull User user) {
+        String name = user.getName();
+        if (name != null) names.put(uuid, name);
+        markKnown(uuid, name);
+    }
+
+    /**
+     * Removes a user's entry from the access table, detaches the user from this manager's change
+     * feed and writes their metadata into the off-heap tier. Their name remains indexed, so they
+     * may still be found once evicted.
+     *
+     * @param uuid the user's UUID
+     * @param user the user being removed
+     */
+    private void unindex(@NotNull UUID uuid, @NotNull User user) {
+        user.setChangeListener(null);
+        Long accessed = lastAccess.remove(uuid);
+        demote(user, accessed != null ? accessed : System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the UUIDs of users whose name starts with the provided prefix, ignoring case, sorted
+     * alphabetically by name. Both resident and evicted users are searched, and no user is loaded.
+     * A search costs O(prefix + results), regardless of the number of users known to this manager.
+     *
+     * @param prefix the name prefix
+     * @param limit  the maximum number of results
+     * @return a list of matching UUIDs
+     * @see #findNamesByPrefix(String, int)
+     */
+    public @NotNull List<UUID> findUsersByPrefix(@NotNull String prefix, int limit) {
+        return names.findByPrefix(prefix, limit);
+    }
+
+    /**
+     * Returns the names starting with the provided prefix, ignoring case, sorted alphabetically.
+     * This method is suited for tab-completion, as no user is loaded.
+     *
+     * <p>Example usage:</p>
+     * <pre>{@code
+     * return userManager.findNamesByPrefix(args[0], 50);
+     * }</pre>
+     *
+     * @param prefix the name prefix
+     * @param limit  the maximum number of results
+     * @return a list of matching names
+     */
+    public @NotNull List<String> findNamesByPrefix(@NotNull String prefix, int limit) {
+        return names.findNamesByPrefix(prefix, limit);
+    }
+
+    /**
+     * Returns whether a user is currently resident in this manager, without loading them
+     * or updating their access time.
+     *
+     * @param uuid the target UUID
+     * @return true if the user is resident
+     */
+    public boolean isResident(@NotNull UUID uuid) {
+        return users.containsKey(uuid);
     }
 
     /**
      * Returns a collection of users handled by this manager. Note that users are NOT
      * loaded into this collection by default but should typically be loaded using the
-     * {@link #onEnable()} method.
+     * {@link #onEnable()} method. When lazy loading is enabled, only resident users are returned.
+     *
+     * <p>The returned collection is an unmodifiable, weakly consistent view of the registry. It may be
+     * iterated from any thread while users are added or removed, and reflects some, all or none of the
+     * changes made during iteration.</p>
      *
      * @return a collection of users
+     * @see #getUserSnapshot()
      */
     public @NotNull Collection<User> getUsers() {
-        return users;
+        return Collections.unmodifiableCollection(users.values());
+    }
+
+    /**
+     * Returns an immutable snapshot of the users currently handled by this manager. Unlike
+     * {@link #getUsers()}, the returned collection never changes after it has been created.
+     *
+     * @return an immutable snapshot of the users
+     */
+    public @NotNull Collection<User> getUserSnapshot() {
+        return Collections.unmodifiableList(new ArrayList<>(users.values()));
     }
 
     /*
@@ -57,40 +1119,133 @@ public abstract class UserManager implements Manager
      */
 
     /**
-     * Returns a user based on the name provided, using a filter system. This method attempts to locate a
-     * user with the matching name. If a user is not found, it throws an exception.
+     * Returns a user based on the name provided, using the name index. If the user is not resident,
+     * they are loaded using the UUID found in the index, or searched for by name if the name is
+     * not indexed, before throwing an exception.
      * <p>
      * This method is case-insensitive, so any input could return a user.
      *
      * @param name the target name
      * @return a user based on the name provided
      * @throws NullPointerException when a user cannot be found with the provided filter.
+     * @see #findUser(String)
      */
     public @NotNull User getUser(String name) {
-        return getUser(user -> user.getName().equalsIgnoreCase(name));
+        return findUser(name).orElseThrow(NullPointerException::new);
     }
 
     /**
-     * Returns a user based on the UUID provided, using a filter system. This method attempts to locate a
-     * user with the matching UUID. If a user is not found, it throws an exception.
+     * Returns a user based on the UUID provided. If the user is not resident, this manager attempts
+     * to load them before throwing an exception.
      *
      * @param uuid the target UUID
      * @return a user based on the UUID provided
      * @throws NullPointerException when a user cannot be found with the provided filter.
+     * @see #findUser(UUID)
      */
     public @NotNull User getUser(UUID uuid) {
-        return getUser(user -> user.getUniqueId().equals(uuid));
+        return findUser(uuid).orElseThrow(NullPointerException::new);
+    }
+
+    /**
+     * Returns the user assigned to the provided name, ignoring case, loading them if they are not
+     * resident. Names that are definitely unknown are answered by the known users filter, without
+     * touching the registry or storage.
+     *
+     * @param name the target name
+     * @return the user, or an empty optional if they are unknown
+     * @see #isKnown(String)
+     */
+    public @NotNull Optional<User> findUser(@NotNull String name) {
+        if (!isKnown(name)) return Optional.empty();
+
+        UUID uuid = names.get(name);
+        User user = uuid != null ? lookup(uuid) : null;
+
+        // REPAIR STALE ENTRIES LEFT BEHIND BY A NAME CHANGE
+        if (user != null && !name.equalsIgnoreCase(user.getName())) {
+            reindex(user);
+            user = null;
+        }
+        if (user == null) {
+            if (uuid == null) misses.increment();
+            user = resolve(loadUser(name));
+        }
+        return Optional.ofNullable(user);
+    }
+
+    /**
+     * Returns the user assigned to the provided UUID, loading them if they are not resident. UUIDs
+     * that are definitely unknown are answered by the known users filter, without touching the
+     * registry or storage.
+     *
+     * @param uuid the target UUID
+     * @return the user, or an empty optional if they are unknown
+     * @see #isKnown(UUID)
+     */
+    public @NotNull Optional<User> findUser(@NotNull UUID uuid) {
+        return Optional.ofNullable(lookup(uuid));
+    }
+
+    /**
+     * Returns the resident user assigned to the provided UUID, loading them if necessary.
+     *
+     * @param uuid the target UUID
+     * @return the user, or null if they are unknown
+     */
+    private @Nullable User lookup(@NotNull UUID uuid) {
+        if (!isKnown(uuid)) return null;
+
+        User user = users.get(uuid);
+        if (user != null) {
+            hits.increment();
+            lastAccess.put(uuid, System.currentTimeMillis());
+            return user;
+        }
+        misses.increment();
+        return resolve(loadUser(uuid));
     }
 
     /**
      * Returns a user based on a specific filter. If a user cannot be found using the provided filter,
-     * this method throws an exception.
+     * this method throws an exception. Please note that only resident users are tested, and that
+     * this method scans every resident user; prefer {@link #getUser(UUID)} or {@link #getUser(String)}
+     * where possible.
      *
      * @param filter the user filter
      * @return a user based on the provided filter
      * @throws NullPointerException when a user cannot be found with the provided filter.
      */
     public @NotNull User getUser(Predicate<User> filter) {
-        return getUsers().stream().filter(filter).findFirst().orElseThrow(NullPointerException::new);
+        User user = findResident(filter);
+        if (user == null) throw new NullPointerException();
+        return user;
+    }
+
+    /**
+     * Returns the first resident user matching the provided filter, marking them as accessed.
+     *
+     * @param filter the user filter
+     * @return the matching user, or null if none was found
+     */
+    private @Nullable User findResident(@NotNull Predicate<User> filter) {
+        User user = users.values().stream().filter(filter).findFirst().orElse(null);
+        if (user != null) lastAccess.computeIfPresent(user.getUniqueId(), (uuid, time) -> System.currentTimeMillis());
+        return user;
+    }
+
+    /**
+     * Publishes a freshly loaded user into this manager. If another thread loaded the same user in the
+     * meantime, the already resident instance is returned instead.
+     *
+     * @param loaded the loaded user
+     * @return the resident user, or null if nothing was loaded
+     */
+    private @Nullable User resolve(@Nullable User loaded) {
+        if (loaded == null) return null;
+        if (addUser(loaded)) return loaded;
+
+        User resident = users.get(loaded.getUniqueId());
+        return resident != null ? resident : loaded;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,341 @@
+package com.moleculepowered.api.user;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * A case-insensitive prefix index of user names, stored as a compressed trie (radix tree) keyed by
+ * lowercased names. Each name is assigned to a single UUID, and each UUID to a single name, so
+ * renaming a user replaces their previous entry.
+ *
+ * <p>Prefix searches walk down the characters of the prefix, then visit the matching subtree in
+ * alphabetical order until enough names have been found. Since every inner node of a compressed trie
+ * branches at least twice, a search costs O(prefix + results), regardless of how many names are
+ * indexed. This makes the index suitable for tab-completing names of offline users.</p>
+ *
+ * <p>This class is thread-safe; searches may run concurrently, while updates are exclusive.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserNameIndex
+{
+    private final Node root = new Node("");
+    private final Map<UUID, String> keys = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /*
+    UPDATE METHODS
+     */
+
+    /**
+     * Assigns a name to the provided UUID. Any previous name of the UUID is removed, and a user
+     * previously holding the same name loses it.
+     *
+     * @param uuid the user's UUID
+     * @param name the user's name
+     */
+    public void put(@NotNull UUID uuid, @NotNull String name) {
+        String key = key(name);
+        lock.writeLock().lock();
+        try {
+            String previous = keys.put(uuid, key);
+            if (previous != null && !previous.equals(key)) removeKey(previous);
+
+            Node node = insert(key);
+            if (node.uuid != null && !node.uuid.equals(uuid)) keys.remove(node.uuid);
+            node.uuid = uuid;
+            node.name = name;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the name assigned to the provided UUID.
+     *
+     * @param uuid the user's UUID
+     * @return true if a name was removed
+     */
+    public boolean remove(@NotNull UUID uuid) {
+        lock.writeLock().lock();
+        try {
+            String key = keys.remove(uuid);
+            if (key == null) return false;
+            removeKey(key);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every name from this index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.uuid = null;
+            keys.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+    LOOKUP METHODS
+     */
+
+    /**
+     * Returns the UUID assigned to the provided name, ignoring case.
+     *
+     * @param name the target name
+     * @return the UUID, or null if the name is not indexed
+     */
+    public @Nullable UUID get(@NotNull String name) {
+        lock.readLock().lock();
+        try {
+            String key = key(name);
+            Position node = descend(key);
+            return node != null && node.exact ? node.node.uuid : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Performs the provided action for each name starting with the provided prefix, ignoring case,
+     * in alphabetical order, until the limit is reached.
+     *
+     * @param prefix the name prefix
+     * @param limit  the maximum number of names visited
+     * @param action the action receiving each UUID and its name
+     */
+    public void forEachPrefix(@NotNull String prefix, int limit, @NotNull BiConsumer<UUID, String> action) {
+        if (limit <= 0) return;
+
+        lock.readLock().lock();
+        try {
+            Position start = descend(key(prefix));
+            if (start == null) return;
+
+            // VISIT THE SUBTREE DEPTH-FIRST, CHILDREN BEING SORTED ALPHABETICALLY
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(start.node);
+            int found = 0;
+            while (!stack.isEmpty() && found < limit) {
+                Node node = stack.pop();
+                if (node.uuid != null) {
+                    action.accept(node.uuid, node.name);
+                    found++;
+                }
+                for (Node child : node.children.descendingMap().values()) stack.push(child);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the UUIDs of users whose name starts with the provided prefix, ignoring case, sorted
+     * alphabetically by name.
+     *
+     * @param prefix the name prefix
+     * @param limit  the maximum number of results
+     * @return a list of matching UUIDs
+     */
+    public @NotNull List<UUID> findByPrefix(@NotNull String prefix, int limit) {
+        List<UUID> output = new ArrayList<>();
+        forEachPrefix(prefix, limit, (uuid, name) -> output.add(uuid));
+        return output;
+    }
+
+    /**
+     * Returns the names starting with the provided prefix, ignoring case, sorted alphabetically.
+     * Names are returned using the case they were indexed with.
+     *
+     * @param prefix the name prefix
+     * @param limit  the maximum number of results
+     * @return a list of matching names
+     */
+    public @NotNull List<String> findNamesByPrefix(@NotNull String prefix, int limit) {
+        List<String> output = new ArrayList<>();
+        forEachPrefix(prefix, limit, (uuid, name) -> output.add(name));
+        return output;
+    }
+
+    /**
+     * Returns whether a name is assigned to the provided UUID.
+     *
+     * @param uuid the user's UUID
+     * @return true if the UUID is indexed
+     */
+    public boolean contains(@NotNull UUID uuid) {
+        lock.readLock().lock();
+        try {
+            return keys.containsKey(uuid);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of names held by this index.
+     *
+     * @return the number of names
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keys.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+    TRIE METHODS
+     */
+
+    /**
+     * Returns the node reached by following the provided key, which may end part-way through the
+     * edge leading into it.
+     *
+     * @param key the lowercased key
+     * @return the reached position, or null if no name starts with the key
+     */
+    private @Nullable Position descend(@NotNull String key) {
+        Node node = root;
+        int index = 0, matched = 0;
+        while (index < key.length()) {
+            Node child = node.children.get(key.charAt(index));
+            if (child == null) return null;
+
+            matched = Math.min(child.edge.length(), key.length() - index);
+            if (!child.edge.regionMatches(0, key, index, matched)) return null;
+            index += matched;
+            node = child;
+        }
+        return new Position(node, matched == node.edge.length());
+    }
+
+    /**
+     * Returns the node assigned to the provided key, creating it, and splitting edges where necessary.
+     *
+     * @param key the lowercased key
+     * @return the node of the key
+     */
+    private @NotNull Node insert(@NotNull String key) {
+        Node node = root;
+        int index = 0;
+        while (index < key.length()) {
+            Node child = node.children.get(key.charAt(index));
+            if (child == null) {
+                child = new Node(key.substring(index));
+                node.children.put(child.edge.charAt(0), child);
+                return child;
+            }
+
+            int common = 0, max = Math.min(child.edge.length(), key.length() - index);
+            while (common < max && child.edge.charAt(common) == key.charAt(index + common)) common++;
+
+            // SPLIT THE EDGE WHEN THE KEY LEAVES IT PART-WAY THROUGH
+            if (common < child.edge.length()) {
+                Node middle = new Node(child.edge.substring(0, common));
+                child.edge = child.edge.substring(common);
+                middle.children.put(child.edge.charAt(0), child);
+                node.children.put(middle.edge.charAt(0), middle);
+                child = middle;
+            }
+            index += common;
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Removes the provided key from the trie, pruning empty nodes and merging nodes left with a
+     * single child, so the trie remains compressed.
+     *
+     * @param key the lowercased key
+     */
+    private void removeKey(@NotNull String key) {
+        Node parent = null, node = root;
+        int index = 0;
+        while (index < key.length()) {
+            Node child = node.children.get(key.charAt(index));
+            if (child == null || !key.startsWith(child.edge, index)) return;
+            index += child.edge.length();
+            parent = node;
+            node = child;
+        }
+        if (parent == null) return;
+
+        node.uuid = null;
+        node.name = null;
+        if (node.children.isEmpty()) {
+            parent.children.remove(node.edge.charAt(0));
+            if (parent != root && parent.uuid == null && parent.children.size() == 1) merge(parent);
+        } else if (node.children.size() == 1) merge(node);
+    }
+
+    /**
+     * Merges a node without a name into its only child.
+     *
+     * @param node the merged node
+     */
+    private static void merge(@NotNull Node node) {
+        Node child = node.children.firstEntry().getValue();
+        node.edge = node.edge + child.edge;
+        node.children = child.children;
+        node.uuid = child.uuid;
+        node.name = child.name;
+    }
+
+    private static @NotNull String key(@NotNull String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A node of the trie, reached through an edge holding one or more characters.
+     */
+    private static final class Node
+    {
+        private String edge;
+        private TreeMap<Character, Node> children = new TreeMap<>();
+        private UUID uuid;
+        private String name;
+
+        private Node(@NotNull String edge) {
+            this.edge = edge;
+        }
+    }
+
+    /**
+     * The result of descending the trie, which is exact when the key ended on the node itself
+     * rather than part-way through its edge.
+     */
+    private static final class Position
+    {
+        private final Node node;
+        private final boolean exact;
+
+        private Position(@NotNull Node node, boolean exact) {
+            this.node = node;
+            this.exact = exact;
+        }
+    }
+}
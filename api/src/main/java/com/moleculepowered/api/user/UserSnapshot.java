@@ -0,0 +1,343 @@
+package com.moleculepowered.api.user;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * An immutable, point-in-time view of a {@link User}, returned by {@link User#snapshot()}.
+ *
+ * <p>A snapshot never changes once created, so it may be freely shared between threads and read
+ * without any locking. Users publish a new snapshot each time a mutation is committed, so reading
+ * the current one never waits on a writer. The record is converted once, when the snapshot is
+ * created, into immutable Java values: text, numbers and booleans are returned as {@link String},
+ * {@link Number} and {@link Boolean}, JSON objects as unmodifiable {@link Map maps} and arrays as
+ * unmodifiable {@link List lists}, so values are returned as they are, without being copied.
+ * Snapshots derived using {@link #with(String, JsonElement)} share every value that did not change.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * UserSnapshot snapshot = user.snapshot();
+ * CompletableFuture.runAsync(() -> panel.render(snapshot.getName(), snapshot.getLong("kills", 0)));
+ * }</pre>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserSnapshot
+{
+    private final UUID uuid;
+    private final String name, displayName, customName, locale;
+    private final Map<String, Object> data;
+    private final long timestamp;
+
+    /*
+    CONSTRUCTORS
+     */
+
+    /**
+     * Creates a snapshot of the provided identity information and record. The record is converted
+     * into immutable values, so later changes made to it are not reflected by this snapshot.
+     *
+     * @param uuid        the user's UUID
+     * @param name        the user's name
+     * @param displayName the user's display name
+     * @param customName  the user's custom name
+     * @param locale      the user's locale
+     * @param record      the user's record
+     */
+    public UserSnapshot(@NotNull UUID uuid, @Nullable String name, @Nullable String displayName,
+                        @Nullable String customName, @Nullable String locale, @NotNull JsonObject record) {
+        this(uuid, name, displayName, customName, locale, freeze(record));
+    }
+
+    private UserSnapshot(@NotNull UUID uuid, @Nullable String name, @Nullable String displayName,
+                         @Nullable String customName, @Nullable String locale, @NotNull Map<String, Object> data) {
+        this.uuid = uuid;
+        this.name = name;
+        this.displayName = displayName;
+        this.customName = customName;
+        this.locale = locale;
+        this.data = data;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns a snapshot of the same user in which the provided key holds the provided value, or is
+     * missing if the value is null. Only the changed value is converted; every other value is shared
+     * with this snapshot, so deriving a snapshot after changing one key does not copy the record.
+     *
+     * @param key   the changed key
+     * @param value the new value, or null if the key was removed
+     * @return the derived snapshot
+     */
+    public @NotNull UserSnapshot with(@NotNull String key, @Nullable JsonElement value) {
+        Map<String, Object> copy = new LinkedHashMap<>(data);
+        if (value != null) copy.put(key, freeze(value));
+        else copy.remove(key);
+        return new UserSnapshot(uuid, name, displayName, customName, locale, Collections.unmodifiableMap(copy));
+    }
+
+    /*
+    CONVERSION METHODS
+     */
+
+    /**
+     * Converts an object into an unmodifiable map of immutable values.
+     */
+    private static @NotNull Map<String, Object> freeze(@NotNull JsonObject object) {
+        Map<String, Object> output = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) output.put(entry.getKey(), freeze(entry.getValue()));
+        return Collections.unmodifiableMap(output);
+    }
+
+    /**
+     * Converts a JSON value into its immutable Java counterpart, or null for a JSON null.
+     */
+    private static @Nullable Object freeze(@NotNull JsonElement value) {
+        if (value.isJsonObject()) return freeze(value.getAsJsonObject());
+        if (value.isJsonArray()) {
+            List<Object> output = new ArrayList<>(value.getAsJsonArray().size());
+            for (JsonElement element : value.getAsJsonArray()) output.add(freeze(element));
+            return Collections.unmodifiableList(output);
+        }
+        if (value.isJsonNull()) return null;
+
+        JsonPrimitive primitive = value.getAsJsonPrimitive();
+        if (primitive.isBoolean()) return primitive.getAsBoolean();
+        if (primitive.isNumber()) return primitive.getAsNumber();
+        return primitive.getAsString();
+    }
+
+    /**
+     * Converts an immutable value back into a new, mutable JSON value.
+     */
+    private static @NotNull JsonElement thaw(@Nullable Object value) {
+        if (value == null) return JsonNull.INSTANCE;
+        if (value instanceof Map) {
+            JsonObject output = new JsonObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) output.add((String) entry.getKey(), thaw(entry.getValue()));
+            return output;
+        }
+        if (value instanceof List) {
+            JsonArray output = new JsonArray();
+            for (Object element : (List<?>) value) output.add(thaw(element));
+            return output;
+        }
+        if (value instanceof Boolean) return new JsonPrimitive((Boolean) value);
+        if (value instanceof Number) return new JsonPrimitive((Number) value);
+        return new JsonPrimitive((String) value);
+    }
+
+    /*
+    IDENTITY METHODS
+     */
+
+    /**
+     * Returns the UUID of the user.
+     *
+     * @return the user's UUID
+     */
+    public @NotNull UUID getUniqueId() {
+        return uuid;
+    }
+
+    /**
+     * Returns the name of the user when this snapshot was taken.
+     *
+     * @return the user's name
+     */
+    public @Nullable String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the display name of the user when this snapshot was taken.
+     *
+     * @return the user's display name
+     */
+    public @Nullable String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Returns the custom name of the user when this snapshot was taken.
+     *
+     * @return the user's custom name
+     */
+    public @Nullable String getCustomName() {
+        return customName;
+    }
+
+    /**
+     * Returns the locale of the user when this snapshot was taken.
+     *
+     * @return the user's locale
+     */
+    public @Nullable String getLocale() {
+        return locale;
+    }
+
+    /**
+     * Returns the time at which this snapshot was taken, in milliseconds since the epoch.
+     *
+     * @return the snapshot timestamp
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /*
+    DATA METHODS
+     */
+
+    /**
+     * Returns whether the record held a value for the provided key.
+     *
+     * @param key the data key
+     * @return true if the key was present
+     */
+    public boolean has(@NotNull String key) {
+        return data.containsKey(key);
+    }
+
+    /**
+     * Returns every key held by the record.
+     *
+     * @return an unmodifiable set of keys
+     */
+    public @NotNull Set<String> getKeys() {
+        return data.keySet();
+    }
+
+    /**
+     * Returns the value assigned to the provided key, as a {@link String}, {@link Number},
+     * {@link Boolean}, unmodifiable {@link Map} or unmodifiable {@link List}.
+     *
+     * @param key the data key
+     * @return the value, or null if the key was missing or null
+     */
+    public @Nullable Object get(@NotNull String key) {
+        return data.get(key);
+    }
+
+    /**
+     * Returns the value the provided compiled key points to, as a {@link String}, {@link Number},
+     * {@link Boolean}, unmodifiable {@link Map} or unmodifiable {@link List}.
+     *
+     * @param key the compiled key
+     * @return the value, or null if it, or one of its parents, was missing
+     */
+    public @Nullable Object get(@NotNull UserKey key) {
+        Object value = data.get(key.getSegment(0));
+        for (int i = 1; i < key.getDepth() && value != null; i++) {
+            value = value instanceof Map ? ((Map<?, ?>) value).get(key.getSegment(i)) : null;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the text assigned to the provided key.
+     *
+     * @param key the data key
+     * @param def the default value
+     * @return the text, or the default value if the key was missing or null
+     */
+    public @Nullable String getString(@NotNull String key, @Nullable String def) {
+        Object value = getPrimitive(key);
+        return value != null ? value.toString() : def;
+    }
+
+    /**
+     * Returns the integer assigned to the provided key.
+     *
+     * @param key the data key
+     * @param def the default value
+     * @return the integer, or the default value if the key was missing or not a number
+     */
+    public int getInt(@NotNull String key, int def) {
+        Object value = getPrimitive(key);
+        try {
+            return value instanceof Number ? ((Number) value).intValue() : value != null ? Integer.parseInt(value.toString()) : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Returns the long assigned to the provided key.
+     *
+     * @param key the data key
+     * @param def the default value
+     * @return the long, or the default value if the key was missing or not a number
+     */
+    public long getLong(@NotNull String key, long def) {
+        Object value = getPrimitive(key);
+        try {
+            return value instanceof Number ? ((Number) value).longValue() : value != null ? Long.parseLong(value.toString()) : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Returns the double assigned to the provided key.
+     *
+     * @param key the data key
+     * @param def the default value
+     * @return the double, or the default value if the key was missing or not a number
+     */
+    public double getDouble(@NotNull String key, double def) {
+        Object value = getPrimitive(key);
+        try {
+            return value instanceof Number ? ((Number) value).doubleValue() : value != null ? Double.parseDouble(value.toString()) : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Returns the boolean assigned to the provided key.
+     *
+     * @param key the data key
+     * @param def the default value
+     * @return the boolean, or the default value if the key was missing
+     */
+    public boolean getBoolean(@NotNull String key, boolean def) {
+        Object value = getPrimitive(key);
+        return value instanceof Boolean ? (Boolean) value : value != null ? Boolean.parseBoolean(value.toString()) : def;
+    }
+
+    /**
+     * Returns the text, number or boolean assigned to the provided key.
+     */
+    private @Nullable Object getPrimitive(@NotNull String key) {
+        Object value = data.get(key);
+        return value instanceof Map || value instanceof List ? null : value;
+    }
+
+    /**
+     * Returns a mutable copy of the record held by this snapshot.
+     *
+     * @return a copy of the record
+     */
+    public @NotNull JsonObject toJson() {
+        return thaw(data).getAsJsonObject();
+    }
+
+    @Override
+    public String toString() {
+        return "UserSnapshot{uuid=" + uuid + ", name=" + name + ", data=" + data + "}";
+    }
+}
@@ -0,0 +1,99 @@
+package com.moleculepowered.api.user;
+
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * A copy of a user's pending changes, returned by {@link UserData#prepareWrite()}, allowing several
+ * users to be written to storage in one batch without holding any of their monitors.
+ *
+ * <p>The record is copied when the write is prepared, so it may be written from any thread. Once the
+ * write has been committed, it is passed back to {@link UserData#completeWrite(UserWrite)}; the user
+ * is only marked clean if it has not been changed since, as identified by the version. If the write
+ * fails, it is passed back to {@link UserData#abortWrite(UserWrite)} instead.</p>
+ *
+ * <p>A user has at most one prepared write at a time, and writes the user performs itself wait until
+ * it has been completed or aborted, so an older copy never overwrites a newer one. A write discarded
+ * by its user, for example because the user has been deleted, must be skipped by the batch.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserWrite
+{
+    private final UUID uuid;
+    private final JsonObject data;
+    private final long version;
+    private volatile boolean discarded;
+
+    /*
+    CONSTRUCTORS
+     */
+
+    /**
+     * Creates a write of the provided record.
+     *
+     * @param uuid    the user's UUID
+     * @param data    a copy of the user's record, which must not be shared with the user
+     * @param version the user's version when the copy was taken
+     */
+    public UserWrite(@NotNull UUID uuid, @NotNull JsonObject data, long version) {
+        this.uuid = uuid;
+        this.data = data;
+        this.version = version;
+    }
+
+    /*
+    GETTER METHODS
+     */
+
+    /**
+     * Returns the UUID of the written user.
+     *
+     * @return the user's UUID
+     */
+    public @NotNull UUID getUniqueId() {
+        return uuid;
+    }
+
+    /**
+     * Returns the copy of the record to write.
+     *
+     * @return the record
+     */
+    public @NotNull JsonObject getData() {
+        return data;
+    }
+
+    /**
+     * Returns the user's version when this write was prepared. Every change made to the user
+     * increments their version.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns whether this write has been discarded by its user, in which case it must not be written.
+     *
+     * @return true if the write should be skipped
+     */
+    public boolean isDiscarded() {
+        return discarded;
+    }
+
+    /*
+    SETTER METHODS
+     */
+
+    /**
+     * Discards this write, so a batch that has not yet written it skips it. This is typically called
+     * by a user whose record is deleted while the write is pending.
+     */
+    public void discard() {
+        this.discarded = true;
+    }
+}
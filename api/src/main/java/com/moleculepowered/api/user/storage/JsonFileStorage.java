@@ -0,0 +1,652 @@
+package com.moleculepowered.api.user.storage;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.moleculepowered.api.exception.user.UserStorageException;
+import com.moleculepowered.api.user.UserIO;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link UserStorage} that keeps every user record in its own JSON file, named after the
+ * user's UUID. This is the default storage used by our platforms.
+ *
+ * <p>To keep directories small on servers with many players, files are sharded into two levels of
+ * sub-folders named after the first four characters of the UUID, for example
+ * {@code user-data/ab/cd/abcd1234-....json}. Files left in the flat layout used by earlier versions
+ * are moved into their shard by a one-time migration started with {@link #prepare()}, and remain
+ * readable until then.</p>
+ *
+ * <p>Records can optionally be written using the compact binary format of {@link UserRecordCodec},
+ * in which case files use the {@code .bin} extension. Either format is read regardless of the one
+ * selected, and a record is migrated to the selected format the next time it is saved.</p>
+ *
+ * <p>Every folder is paired with a memory-mapped {@link UserIndex}, stored as {@code index.dat},
+ * which records where each user's file lives and when it was last written. Once the index is ready,
+ * records are located and "last seen" queries are answered from the index, and listing users no
+ * longer walks the shard folders. If the index was not closed cleanly, it is rebuilt by
+ * {@link #prepare()} and the files are used until then. A user missing from the index is still searched
+ * for on the file system, and indexed once found, so files copied into the folder by hand, restored
+ * from a backup or written by another server are never mistaken for missing records.</p>
+ *
+ * <p>When several servers share the same folder, only the first one to open it maintains the index,
+ * since it is locked while open; the other servers use the file system alone. Users written by
+ * other servers are only listed by {@link #getUniqueIds()} once this server has found them.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class JsonFileStorage implements UserStorage
+{
+    private static final int LOCK_STRIPES = 64;
+    private static final Object[] LOCKS = new Object[LOCK_STRIPES];
+    private static final long LOCATION_BINARY = 1, LOCATION_FLAT = 2;
+    private static final ConcurrentMap<String, FolderState> FOLDERS = new ConcurrentHashMap<>();
+    private final File dataFolder;
+    private final boolean binary;
+    private final FolderState state;
+    private boolean closed;
+
+    static {
+        for (int i = 0; i < LOCK_STRIPES; i++) LOCKS[i] = new Object();
+    }
+
+    /*
+    CONSTRUCTORS
+     */
+
+    /**
+     * Creates a JSON file storage that reads and writes records inside the provided folder.
+     *
+     * @param dataFolder the folder holding the user files
+     */
+    public JsonFileStorage(@NotNull File dataFolder) {
+        this(dataFolder, false);
+    }
+
+    /**
+     * Creates a file storage that reads and writes records inside the provided folder, using
+     * either pretty-printed JSON or the compact binary record format. The index of the folder is
+     * shared by every storage using it, and stays open until all of them have been closed.
+     *
+     * @param dataFolder the folder holding the user files
+     * @param binary     whether records should be written using the binary format
+     * @see #prepare()
+     */
+    public JsonFileStorage(@NotNull File dataFolder, boolean binary) {
+        this.dataFolder = dataFolder;
+        this.binary = binary;
+        this.state = FOLDERS.compute(dataFolder.getAbsolutePath(), (path, current) -> {
+            if (current != null) {
+                current.references++;
+                return current;
+            }
+            return new FolderState(new File(dataFolder, "index.dat"));
+        });
+    }
+
+    /**
+     * Migrates the files left in the flat layout into their shard, then rebuilds the index if it
+     * cannot be trusted, on the {@link UserIO} executor. Both only happen once per folder, even if
+     * several storages share it, so later calls return the same future. Until the returned future
+     * completes, flat files remain readable and records are located using the file system.
+     *
+     * <p>The future is completed with the flat files that could not be migrated, such as a file
+     * not named after a UUID whose record holds no valid {@code "uuid"}, which are left in place
+     * so they can be recovered by hand. If the migration fails, or cannot be queued, the future is
+     * completed exceptionally and the migration is attempted again by the next call.</p>
+     *
+     * <p>Example usage:</p>
+     * <pre>{@code
+     * storage.prepare().thenAccept(skipped -> skipped.forEach(file -> console.warning("Skipped {0}", file)));
+     * }</pre>
+     *
+     * @return a future completed with the files left in the flat layout
+     */
+    public @NotNull CompletableFuture<Collection<File>> prepare() {
+        synchronized (state) {
+            if (state.prepared == null || state.prepared.isCompletedExceptionally()) {
+                state.prepared = UserIO.supplyAsync(() -> {
+                    try {
+                        return migrate(state);
+                    } finally {
+                        rebuildIndex(state);
+                    }
+                });
+            }
+            return state.prepared;
+        }
+    }
+
+    /*
+    STORAGE METHODS
+     */
+
+    /**
+     * Loads the record assigned to the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return the stored record, or null if no file exists
+     */
+    @Override
+    public @Nullable JsonObject load(@NotNull UUID uuid) {
+        synchronized (lock(uuid)) {
+            File file = locate(uuid);
+            if (file == null) return null;
+
+            // BINARY RECORDS ARE DECODED FROM BYTES, JSON IS STREAMED
+            try {
+                if (file.getName().endsWith(".bin")) return UserRecordCodec.decode(Files.readAllBytes(file.toPath()));
+                try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    return UserRecordCodec.readJson(reader);
+                }
+            } catch (IOException | JsonParseException ex) {
+                throw new UserStorageException(ex, "Failed to read user data file: {0}", file.getPath());
+            }
+        }
+    }
+
+    /**
+     * Creates or replaces the file assigned to the provided UUID. Any file left for the same UUID
+     * in the other format or in the flat layout is removed once the record has been written.
+     *
+     * @param uuid the target UUID
+     * @param data the record to store
+     */
+    @Override
+    public void save(@NotNull UUID uuid, @NotNull JsonObject data) {
+        File file = getFile(uuid);
+        File folder = file.getParentFile();
+
+        synchronized (lock(uuid)) {
+            if (!folder.exists() && !folder.mkdirs())
+                throw new UserStorageException("Unable to create user data folder: {0}", folder.getPath());
+
+            try {
+                Files.write(file.toPath(), binary ? UserRecordCodec.encode(data) : UserRecordCodec.encodeJson(data, true));
+            } catch (IOException ex) {
+                throw new UserStorageException(ex, "Failed to write user data file: {0}", file.getPath());
+            }
+            if (state.index != null) state.index.put(uuid, binary ? LOCATION_BINARY : 0, System.currentTimeMillis());
+
+            // REMOVE RECORDS LEFT IN THE PREVIOUS FORMAT OR LAYOUT
+            for (File previous : getCandidates(uuid)) {
+                if (previous.equals(file)) continue;
+                if (previous.exists() && !previous.delete())
+                    throw new UserStorageException("Unable to remove migrated user data file: {0}", previous.getPath());
+            }
+        }
+    }
+
+    /**
+     * Deletes the files assigned to the provided UUID, in either format and layout.
+     *
+     * @param uuid the target UUID
+     * @return true if a file was deleted
+     */
+    @Override
+    public boolean delete(@NotNull UUID uuid) {
+        synchronized (lock(uuid)) {
+            boolean deleted = false;
+            for (File file : getCandidates(uuid)) deleted |= file.delete();
+            if (state.index != null) state.index.remove(uuid);
+            return deleted;
+        }
+    }
+
+    /**
+     * Returns whether a file exists for the provided UUID. Once the index is ready, indexed users
+     * are answered without touching the file system.
+     *
+     * @param uuid the target UUID
+     * @return true if the file exists
+     */
+    @Override
+    public boolean exists(@NotNull UUID uuid) {
+        if (state.indexed && state.index.contains(uuid)) return true;
+        synchronized (lock(uuid)) {
+            return locate(uuid) != null;
+        }
+    }
+
+    /**
+     * Returns the UUID of every user file held by this storage, in either format and layout.
+     * Files that are not named after a valid UUID are ignored. Once the index is ready, the UUIDs
+     * are read from the index instead of walking the shard folders.
+     *
+     * @return a collection of stored UUIDs
+     */
+    @Override
+    public @NotNull Collection<UUID> getUniqueIds() {
+        if (state.indexed) return state.index.getUniqueIds();
+        return scanIds();
+    }
+
+    /**
+     * Returns the time at which the record assigned to the provided UUID was last written, or last
+     * marked as seen using {@link #touch(UUID)}.
+     *
+     * @param uuid the target UUID
+     * @return the timestamp in milliseconds since the epoch, or -1 if no file exists
+     */
+    @Override
+    public long getLastSeen(@NotNull UUID uuid) {
+        if (state.indexed) {
+            long timestamp = state.index.getTimestamp(uuid);
+            if (timestamp >= 0) return timestamp;
+        }
+        synchronized (lock(uuid)) {
+            File file = find(uuid);
+            return file != null ? file.lastModified() : -1;
+        }
+    }
+
+    /**
+     * Marks the record assigned to the provided UUID as seen now, without rewriting it. If no
+     * file exists, this method does nothing.
+     *
+     * @param uuid the target UUID
+     */
+    @Override
+    public void touch(@NotNull UUID uuid) {
+        if (state.index == null) return;
+        synchronized (lock(uuid)) {
+            long location = state.index.getLocation(uuid);
+            if (location >= 0) state.index.put(uuid, location, System.currentTimeMillis());
+            else if (state.indexed && locate(uuid) != null) touch(uuid);
+        }
+    }
+
+    /**
+     * Syncs the index to disk, so it can be trusted the next time the folder is opened. Once every
+     * storage using the folder has been closed, the index is closed as well, releasing its file
+     * and lock, so the folder may be opened again, for example after a reload. Closing a storage
+     * more than once has no effect.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+
+        FOLDERS.computeIfPresent(dataFolder.getAbsolutePath(), (path, current) -> {
+            if (current != state) return current;
+            if (--current.references > 0) {
+                if (current.index != null) current.index.sync();
+                return current;
+            }
+            current.close();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the UUID of every user file found by walking the data folder.
+     *
+     * @return a collection of stored UUIDs
+     */
+    private @NotNull Collection<UUID> scanIds() {
+        Set<UUID> output = new LinkedHashSet<>();
+        try (DirectoryStream<Path> first = Files.newDirectoryStream(dataFolder.toPath(), Files::isDirectory)) {
+            for (Path shard : first) {
+                try (DirectoryStream<Path> second = Files.newDirectoryStream(shard, Files::isDirectory)) {
+                    for (Path folder : second) collectIds(folder, output);
+                }
+            }
+            if (!state.migrated) collectIds(dataFolder.toPath(), output);
+        } catch (NoSuchFileException ignored) {
+        } catch (IOException ex) {
+            throw new UserStorageException(ex, "Failed to list user data files inside {0}", dataFolder.getPath());
+        }
+        return output;
+    }
+
+    /*
+    MIGRATION METHODS
+     */
+
+    /**
+     * Moves every file left in the flat layout into its shard. A flat file is discarded instead if
+     * a newer record has already been written to the shard. Files not named after a UUID are
+     * recovered using the {@code "uuid"} stored in their record. If the migration fails, remaining
+     * flat files stay readable and are migrated by the next attempt.
+     *
+     * @param state the state of the migrated folder
+     * @return the flat files that could not be migrated
+     * @throws UserStorageException when the folder cannot be migrated
+     */
+    private @NotNull List<File> migrate(@NotNull FolderState state) {
+        List<File> skipped = new ArrayList<>();
+        int moved = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dataFolder.toPath(), "*.{json,bin}")) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                UUID uuid = parseId(name);
+                if (uuid == null) {
+                    if (recover(path)) moved++;
+                    else skipped.add(path.toFile());
+                    continue;
+                }
+
+                synchronized (lock(uuid)) {
+                    File target = new File(getShard(uuid), name);
+                    if (!Files.exists(path)) continue;
+                    if (target.exists()) {
+                        Files.delete(path);
+                        continue;
+                    }
+                    Files.createDirectories(target.getParentFile().toPath());
+                    Files.move(path, target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                    if (state.index != null && state.index.contains(uuid))
+                        state.index.put(uuid, state.index.getLocation(uuid) & ~LOCATION_FLAT, state.index.getTimestamp(uuid));
+                    moved++;
+                }
+            }
+            state.migrated = true;
+        } catch (NoSuchFileException ex) {
+            state.migrated = true;
+        } catch (IOException | RuntimeException ex) {
+            throw new UserStorageException(ex, "Failed to migrate user data files inside {0}, {1} files were moved", dataFolder.getPath(), moved);
+        }
+        return skipped;
+    }
+
+    /**
+     * Moves a flat file that is not named after a UUID, such as the {@code null.json} written by
+     * early versions, into the shard of the user whose UUID is stored in its record. The file is
+     * left in place if its record holds no valid UUID, or if that user already has a record.
+     *
+     * @param path the flat file
+     * @return true if the file was moved
+     * @throws IOException if the file cannot be moved
+     */
+    private boolean recover(@NotNull Path path) throws IOException {
+        UUID uuid;
+        try {
+            byte[] data = Files.readAllBytes(path);
+            JsonElement id = UserRecordCodec.decode(data).get("uuid");
+            uuid = id != null && id.isJsonPrimitive() ? UUID.fromString(id.getAsString()) : null;
+        } catch (JsonParseException | IllegalArgumentException ex) {
+            uuid = null;
+        }
+        if (uuid == null) return false;
+
+        synchronized (lock(uuid)) {
+            if (!Files.exists(path) || find(uuid) != null) return false;
+
+            boolean binary = path.getFileName().toString().endsWith(".bin");
+            File target = new File(getShard(uuid), uuid + extension(binary));
+            Files.createDirectories(target.getParentFile().toPath());
+            Files.move(path, target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            if (state.index != null) index(state.index, uuid, target);
+            return true;
+        }
+    }
+
+    /**
+     * Returns whether every file left in the flat layout has been moved into its shard.
+     *
+     * @return true if the migration has completed
+     */
+    public boolean isMigrated() {
+        return state.migrated;
+    }
+
+    /*
+    INDEX METHODS
+     */
+
+    /**
+     * Rebuilds the index from the files of the folder if it was not closed cleanly, then marks it
+     * as ready. Each file is indexed under its lock, so writes made during the rebuild are never
+     * overwritten by stale entries.
+     *
+     * @param state the state of the indexed folder
+     */
+    private void rebuildIndex(@NotNull FolderState state) {
+        UserIndex index = state.index;
+        if (index == null) return;
+        if (index.wasClean()) {
+            state.indexed = true;
+            return;
+        }
+
+        try {
+            for (UUID uuid : scanIds()) {
+                if (state.closed) return;
+                synchronized (lock(uuid)) {
+                    File file = find(uuid);
+                    if (file != null) index(index, uuid, file);
+                }
+            }
+            index.sync();
+            state.indexed = true;
+        } catch (RuntimeException ex) {
+            // CLOSING THE LAST STORAGE CLOSES THE INDEX, WHICH SIMPLY ENDS THE REBUILD
+            if (state.closed) return;
+            new UserStorageException(ex, "Failed to rebuild the user index inside {0}", dataFolder.getPath()).printStackTrace();
+        }
+    }
+
+    /**
+     * Records the location and modification time of the provided file in the index.
+     *
+     * @param index the index to update
+     * @param uuid  the user's UUID
+     * @param file  the file holding the user's record
+     */
+    private void index(@NotNull UserIndex index, @NotNull UUID uuid, @NotNull File file) {
+        long location = (file.getName().endsWith(".bin") ? LOCATION_BINARY : 0)
+                | (file.getParentFile().equals(dataFolder) ? LOCATION_FLAT : 0);
+        index.put(uuid, location, file.lastModified());
+    }
+
+    /**
+     * Returns whether the index of this folder is ready to answer lookups.
+     *
+     * @return true if the index is ready
+     */
+    public boolean isIndexed() {
+        return state.indexed;
+    }
+
+    /*
+    FILE METHODS
+     */
+
+    /**
+     * Returns the file used to store the record assigned to the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return the user data file for the selected format
+     */
+    public @NotNull File getFile(@NotNull UUID uuid) {
+        return new File(getShard(uuid), uuid + extension(binary));
+    }
+
+    /**
+     * Returns the file holding the record assigned to the provided UUID. Once the index is ready,
+     * the file is located using the index. Otherwise, or if the indexed file has been removed by hand,
+     * the candidate files are searched instead. Files missing from the index, for example because
+     * they were written by another server, are searched for and added to the index.
+     *
+     * @param uuid the target UUID
+     * @return the existing file, or null if none exists
+     */
+    private @Nullable File locate(@NotNull UUID uuid) {
+        if (!state.indexed) return find(uuid);
+
+        long location = state.index.getLocation(uuid);
+        if (location < 0) {
+            File file = find(uuid);
+            if (file != null) index(state.index, uuid, file);
+            return file;
+        }
+
+        boolean binary = (location & LOCATION_BINARY) != 0;
+        File file = new File((location & LOCATION_FLAT) != 0 ? dataFolder : getShard(uuid), uuid + extension(binary));
+        return file.exists() ? file : find(uuid);
+    }
+
+    /**
+     * Returns the first existing file holding the record assigned to the provided UUID, searching
+     * the selected format before the other one, and the sharded layout before the flat one.
+     *
+     * @param uuid the target UUID
+     * @return the existing file, or null if none exists
+     */
+    private @Nullable File find(@NotNull UUID uuid) {
+        for (File file : getCandidates(uuid)) {
+            if (file.exists()) return file;
+        }
+        return null;
+    }
+
+    /**
+     * Returns every file that may hold the record assigned to the provided UUID, in lookup order.
+     * Flat files are only included until the migration has completed.
+     *
+     * @param uuid the target UUID
+     * @return the candidate files
+     */
+    private @NotNull List<File> getCandidates(@NotNull UUID uuid) {
+        File shard = getShard(uuid);
+        List<File> output = new ArrayList<>(4);
+        output.add(new File(shard, uuid + extension(binary)));
+        output.add(new File(shard, uuid + extension(!binary)));
+        if (!state.migrated) {
+            output.add(new File(dataFolder, uuid + extension(binary)));
+            output.add(new File(dataFolder, uuid + extension(!binary)));
+        }
+        return output;
+    }
+
+    /**
+     * Returns the shard folder assigned to the provided UUID, named after its first four characters.
+     *
+     * @param uuid the target UUID
+     * @return the shard folder
+     */
+    private @NotNull File getShard(@NotNull UUID uuid) {
+        String id = uuid.toString();
+        return new File(new File(dataFolder, id.substring(0, 2)), id.substring(2, 4));
+    }
+
+    /**
+     * Returns the lock guarding the files assigned to the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return the lock object
+     */
+    private @NotNull Object lock(@NotNull UUID uuid) {
+        return LOCKS[(uuid.hashCode() & 0x7FFFFFFF) % LOCK_STRIPES];
+    }
+
+    /**
+     * Adds the UUID of every user file found directly inside the provided folder.
+     *
+     * @param folder the target folder
+     * @param output the collection receiving the UUIDs
+     * @throws IOException if the folder cannot be listed
+     */
+    private static void collectIds(@NotNull Path folder, @NotNull Collection<UUID> output) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, "*.{json,bin}")) {
+            for (Path path : files) {
+                UUID uuid = parseId(path.getFileName().toString());
+                if (uuid != null) output.add(uuid);
+            }
+        }
+    }
+
+    /**
+     * Returns the UUID a user file is named after.
+     *
+     * @param name the file name
+     * @return the UUID, or null if the file is not named after a valid UUID
+     */
+    private static @Nullable UUID parseId(@NotNull String name) {
+        try {
+            return UUID.fromString(name.substring(0, name.lastIndexOf('.')));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            return null;
+        }
+    }
+
+    private static @NotNull String extension(boolean binary) {
+        return binary ? ".bin" : ".json";
+    }
+
+    /**
+     * The state shared by every storage using the same folder, counting the storages still open.
+     * References are only changed while the state is being computed in {@link #FOLDERS}.
+     */
+    private static final class FolderState
+    {
+        private final UserIndex index;
+        private int references = 1;
+        private volatile boolean migrated, indexed, closed;
+        private CompletableFuture<Collection<File>> prepared;
+
+        private FolderState(@NotNull File indexFile) {
+            UserIndex index = null;
+            try {
+                index = new UserIndex(indexFile);
+            } catch (UserStorageException ex) {
+                ex.printStackTrace();
+            }
+            this.index = index;
+        }
+
+        /**
+         * Stops using the index and closes it. Called once the last storage using the folder is closed.
+         */
+        private void close() {
+            closed = true;
+            indexed = false;
+            if (index == null) return;
+            try {
+                index.close();
+            } catch (UserStorageException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns whether this storage writes records using the binary format.
+     *
+     * @return true if records are written in binary
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Returns the folder where user files are stored.
+     *
+     * @return the user data folder
+     */
+    public @NotNull File getDataFolder() {
+        return dataFolder;
+    }
+}
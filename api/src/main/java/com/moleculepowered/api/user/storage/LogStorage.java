@@ -0,0 +1,630 @@
+package com.moleculepowered.api.user.storage;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.moleculepowered.api.exception.user.UserStorageException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link UserStorage} that appends every user record to a segmented, log-structured file instead
+ * of keeping one file per user. An in-memory index maps each UUID to the location of its latest
+ * record, so loading a user is a single positional read, while startup and bulk iteration become
+ * sequential reads over a handful of segment files.
+ *
+ * <p>Writes are only ever appended to the active segment. Once a segment grows past the configured
+ * size, a new one is started. Superseded and deleted records are reclaimed in the background by
+ * compacting the sealed segments into a single segment holding only live records.</p>
+ *
+ * <p>Records are stored using the binary format of {@link UserRecordCodec}; records written as
+ * JSON text by earlier versions are still read transparently.</p>
+ *
+ * <p>Every record carries a checksum, so a record left incomplete by a crash is detected and
+ * discarded the next time the storage is opened.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class LogStorage implements UserStorage
+{
+    private static final int MAGIC = 0x4D4C4F47, HEADER_SIZE = 6, RECORD_HEADER = 21, CHECKSUM = 4;
+    private static final byte VERSION = 1, COMPACTED = 1, PUT = 1, DELETE = 2;
+    private final ConcurrentMap<UUID, Location> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final File folder;
+    private final long segmentSize;
+    private final ScheduledExecutorService compactor;
+    private Segment active;
+
+    /*
+    CONSTRUCTORS
+     */
+
+    /**
+     * Opens a log storage inside the provided folder, using 8 MB segments and compacting
+     * every five minutes.
+     *
+     * @param folder the folder holding the segment files
+     * @throws UserStorageException when the existing segments cannot be read
+     */
+    public LogStorage(@NotNull File folder) {
+        this(folder, 8 * 1024 * 1024, Duration.ofMinutes(5));
+    }
+
+    /**
+     * Opens a log storage inside the provided folder. Every existing segment is replayed in order
+     * to rebuild the in-memory index.
+     *
+     * @param folder             the folder holding the segment files
+     * @param segmentSize        the size, in bytes, after which a new segment is started
+     * @param compactionInterval how often sealed segments are checked for compaction
+     * @throws UserStorageException when the existing segments cannot be read
+     */
+    public LogStorage(@NotNull File folder, long segmentSize, @NotNull Duration compactionInterval) {
+        this.folder = folder;
+        this.segmentSize = segmentSize;
+
+        try {
+            open();
+        } catch (IOException ex) {
+            throw new UserStorageException(ex, "Failed to open the user log inside {0}", folder.getPath());
+        }
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Molecule User Compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = compactionInterval.toMillis();
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+    STORAGE METHODS
+     */
+
+    /**
+     * Loads the latest record assigned to the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return the stored record, or null if none exists
+     */
+    @Override
+    public @Nullable JsonObject load(@NotNull UUID uuid) {
+        lock.readLock().lock();
+        try {
+            Location location = index.get(uuid);
+            if (location == null) return null;
+
+            ByteBuffer buffer = ByteBuffer.allocate(location.length - RECORD_HEADER - CHECKSUM);
+            FileChannel channel = segments.get(location.segment).channel;
+            long position = location.offset + RECORD_HEADER;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) throw new EOFException();
+            }
+            return UserRecordCodec.decode(buffer.array());
+        } catch (IOException | JsonParseException ex) {
+            throw new UserStorageException(ex, "Failed to read user {0} from the user log", uuid);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a new record for the provided UUID, superseding any previous record.
+     *
+     * @param uuid the target UUID
+     * @param data the record to store
+     */
+    @Override
+    public void save(@NotNull UUID uuid, @NotNull JsonObject data) {
+        byte[] payload = UserRecordCodec.encode(data);
+
+        lock.readLock().lock();
+        try {
+            synchronized (this) {
+                Location previous = index.put(uuid, append(PUT, uuid, payload));
+                if (previous != null) discard(previous);
+            }
+        } catch (IOException ex) {
+            throw new UserStorageException(ex, "Failed to append user {0} to the user log", uuid);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a deletion marker for the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return true if a record was deleted
+     */
+    @Override
+    public boolean delete(@NotNull UUID uuid) {
+        lock.readLock().lock();
+        try {
+            synchronized (this) {
+                Location previous = index.remove(uuid);
+                if (previous == null) return false;
+
+                discard(previous);
+                discard(append(DELETE, uuid, new byte[0]));
+                return true;
+            }
+        } catch (IOException ex) {
+            throw new UserStorageException(ex, "Failed to delete user {0} from the user log", uuid);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether a record exists for the provided UUID. This method only consults the
+     * in-memory index and never touches the disk.
+     *
+     * @param uuid the target UUID
+     * @return true if a record exists
+     */
+    @Override
+    public boolean exists(@NotNull UUID uuid) {
+        return index.containsKey(uuid);
+    }
+
+    /**
+     * Returns the UUID of every live record held by this storage.
+     *
+     * @return a collection of stored UUIDs
+     */
+    @Override
+    public @NotNull Collection<UUID> getUniqueIds() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    /**
+     * Performs the provided action for every live record, reading each segment sequentially
+     * from oldest to newest.
+     *
+     * @param action the action performed for each record
+     */
+    @Override
+    public void forEach(@NotNull BiConsumer<UUID, JsonObject> action) {
+        lock.readLock().lock();
+        try {
+            for (Segment segment : segments.values()) {
+                scan(segment, (type, uuid, offset, length, payload) -> {
+                    Location location = index.get(uuid);
+                    if (type != PUT || location == null || location.segment != segment.id || location.offset != offset)
+                        return;
+                    action.accept(uuid, UserRecordCodec.decode(payload));
+                });
+            }
+        } catch (IOException | JsonParseException ex) {
+            throw new UserStorageException(ex, "Failed to iterate over the user log");
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a group of writes, forcing the active segment to disk once they complete.
+     *
+     * @param writes the task performing the writes
+     */
+    @Override
+    public void batch(@NotNull Runnable writes) {
+        writes.run();
+        synchronized (this) {
+            try {
+                active.channel.force(false);
+            } catch (IOException ex) {
+                throw new UserStorageException(ex, "Failed to sync the user log");
+            }
+        }
+    }
+
+    /**
+     * Stops the background compaction and closes every segment file.
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        lock.writeLock().lock();
+        try {
+            for (Segment segment : segments.values()) {
+                try {
+                    segment.channel.force(true);
+                    segment.channel.close();
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+    COMPACTION
+     */
+
+    /**
+     * Compacts the sealed segments when at least half of their contents are superseded or deleted
+     * records. The live records of every sealed segment are copied into a single new segment, after
+     * which the old segments are removed. Writes continue to the active segment while this runs.
+     */
+    public void compact() {
+        List<Segment> sealed;
+        synchronized (this) {
+            sealed = new ArrayList<>(segments.headMap(active.id).values());
+        }
+
+        long size = 0, garbage = 0;
+        for (Segment segment : sealed) {
+            size += segment.size - HEADER_SIZE;
+            garbage += segment.garbage.get();
+        }
+        if (sealed.isEmpty() || garbage * 2 < size) return;
+
+        long target = sealed.get(sealed.size() - 1).id;
+        File temp = new File(folder, getFileName(target) + ".compact");
+        Map<UUID, Location> previous = new HashMap<>();
+        Map<UUID, Location> moved = new HashMap<>();
+
+        try {
+            // COPY EVERY LIVE RECORD INTO THE COMPACTED SEGMENT
+            try (FileChannel output = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                write(output, header(COMPACTED), 0);
+                long[] position = {HEADER_SIZE};
+
+                for (Segment segment : sealed) {
+                    scan(segment, (type, uuid, offset, length, payload) -> {
+                        Location location = index.get(uuid);
+                        if (type != PUT || location == null || location.segment != segment.id || location.offset != offset)
+                            return;
+
+                        write(output, encode(PUT, uuid, payload), position[0]);
+                        previous.put(uuid, location);
+                        moved.put(uuid, new Location(target, position[0], length));
+                        position[0] += length;
+                    });
+                }
+                output.force(true);
+            }
+
+            // SWAP THE SEALED SEGMENTS FOR THE COMPACTED ONE
+            lock.writeLock().lock();
+            try {
+                for (Segment segment : sealed) {
+                    segment.channel.close();
+                    segments.remove(segment.id);
+                }
+
+                File file = new File(folder, getFileName(target));
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                for (Segment segment : sealed) {
+                    if (segment.id != target) Files.deleteIfExists(segment.file.toPath());
+                }
+
+                Segment compacted = openSegment(target, file);
+                compacted.size = compacted.channel.size();
+                segments.put(target, compacted);
+
+                // RECORDS UPDATED WHILE COMPACTING KEEP THEIR NEWER LOCATION
+                moved.forEach((uuid, location) -> {
+                    if (!index.replace(uuid, previous.get(uuid), location)) compacted.garbage.addAndGet(location.length);
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException ex) {
+            throw new UserStorageException(ex, "Failed to compact the user log inside {0}", folder.getPath());
+        }
+    }
+
+    /*
+    SEGMENT HANDLING
+     */
+
+    /**
+     * Opens every segment inside the folder and replays them in order to rebuild the index. Segments
+     * made obsolete by a compacted segment are removed, and incomplete records left at the end of a
+     * segment are truncated.
+     *
+     * @throws IOException if a segment cannot be read
+     */
+    private void open() throws IOException {
+        if (!folder.exists() && !folder.mkdirs())
+            throw new IOException("Unable to create user log folder: " + folder.getPath());
+
+        // DISCARD COMPACTIONS THAT NEVER COMPLETED
+        File[] leftovers = folder.listFiles((dir, name) -> name.endsWith(".compact"));
+        if (leftovers != null) for (File file : leftovers) Files.deleteIfExists(file.toPath());
+
+        File[] files = folder.listFiles((dir, name) -> name.matches("segment-\\d+\\.log"));
+        if (files != null) {
+            for (File file : files) {
+                long id = Long.parseLong(file.getName().replaceAll("\\D", ""));
+                segments.put(id, openSegment(id, file));
+            }
+        }
+
+        // A COMPACTED SEGMENT SUPERSEDES EVERY SEGMENT BEFORE IT
+        for (Segment segment : new ArrayList<>(segments.descendingMap().values())) {
+            if (!segment.compacted) continue;
+            for (Segment obsolete : new ArrayList<>(segments.headMap(segment.id).values())) {
+                obsolete.channel.close();
+                segments.remove(obsolete.id);
+                Files.deleteIfExists(obsolete.file.toPath());
+            }
+            break;
+        }
+
+        // REPLAY EVERY SEGMENT TO REBUILD THE INDEX
+        for (Segment segment : segments.values()) {
+            long end = scan(segment, (type, uuid, offset, length, payload) -> {
+                Location previous = type == PUT ? index.put(uuid, new Location(segment.id, offset, length)) : index.remove(uuid);
+                if (previous != null) discard(previous);
+                if (type == DELETE) segment.garbage.addAndGet(length);
+            });
+            if (end < segment.channel.size()) segment.channel.truncate(end);
+            segment.size = end;
+        }
+
+        active = segments.isEmpty() ? createSegment(1) : segments.lastEntry().getValue();
+    }
+
+    /**
+     * Opens an existing segment file, writing a fresh header if the file is empty.
+     *
+     * @param id   the segment id
+     * @param file the segment file
+     * @return the opened segment
+     * @throws IOException if the file is not a valid segment
+     */
+    private @NotNull Segment openSegment(long id, @NotNull File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            channel.truncate(0);
+            write(channel, header((byte) 0), 0);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) channel.read(header, header.position());
+        header.flip();
+
+        if (header.getInt() != MAGIC || header.get() != VERSION) {
+            channel.close();
+            throw new IOException("Invalid user log segment: " + file.getPath());
+        }
+        return new Segment(id, file, channel, header.get() == COMPACTED);
+    }
+
+    /**
+     * Creates a new, empty segment and makes it available for writing.
+     *
+     * @param id the segment id
+     * @return the created segment
+     * @throws IOException if the segment cannot be created
+     */
+    private @NotNull Segment createSegment(long id) throws IOException {
+        Segment segment = openSegment(id, new File(folder, getFileName(id)));
+        segment.size = HEADER_SIZE;
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * Appends a record to the active segment, starting a new segment first if the active one is full.
+     * The caller must hold this storage's monitor.
+     *
+     * @param type    the record type
+     * @param uuid    the record UUID
+     * @param payload the record payload
+     * @return the location of the appended record
+     * @throws IOException if the record cannot be written
+     */
+    private @NotNull Location append(byte type, @NotNull UUID uuid, byte[] payload) throws IOException {
+        if (active.size >= segmentSize) {
+            active.channel.force(false);
+            active = createSegment(active.id + 1);
+        }
+
+        ByteBuffer record = encode(type, uuid, payload);
+        long offset = active.size;
+        write(active.channel, record, offset);
+
+        active.size += record.limit();
+        return new Location(active.id, offset, record.limit());
+    }
+
+    /**
+     * Marks a superseded record as garbage, making its segment a better candidate for compaction.
+     *
+     * @param location the superseded record
+     */
+    private void discard(@NotNull Location location) {
+        Segment segment = segments.get(location.segment);
+        if (segment != null) segment.garbage.addAndGet(location.length);
+    }
+
+    /**
+     * Reads every valid record inside a segment sequentially, stopping at the first incomplete
+     * or corrupted record.
+     *
+     * @param segment the segment to read
+     * @param visitor the visitor receiving each record
+     * @return the offset directly after the last valid record
+     * @throws IOException if the segment cannot be read
+     */
+    private long scan(@NotNull Segment segment, @NotNull RecordVisitor visitor) throws IOException {
+        long offset = HEADER_SIZE, fileSize = segment.file.length();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(segment.file), 1 << 16))) {
+            if (input.skip(HEADER_SIZE) < HEADER_SIZE) return offset;
+
+            while (true) {
+                byte type;
+                UUID uuid;
+                byte[] payload;
+                int checksum;
+                try {
+                    type = input.readByte();
+                    uuid = new UUID(input.readLong(), input.readLong());
+                    int length = input.readInt();
+                    if (length < 0 || length > fileSize - offset - RECORD_HEADER - CHECKSUM) break;
+
+                    payload = new byte[length];
+                    input.readFully(payload);
+                    checksum = input.readInt();
+                } catch (EOFException ex) {
+                    break;
+                }
+
+                ByteBuffer record = encode(type, uuid, payload);
+                if (record.getInt(record.limit() - CHECKSUM) != checksum || (type != PUT && type != DELETE)) break;
+
+                visitor.visit(type, uuid, offset, record.limit(), payload);
+                offset += record.limit();
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Encodes a record, including its checksum.
+     *
+     * @param type    the record type
+     * @param uuid    the record UUID
+     * @param payload the record payload
+     * @return a buffer holding the encoded record, ready to be written
+     */
+    private static @NotNull ByteBuffer encode(byte type, @NotNull UUID uuid, byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER + payload.length + CHECKSUM);
+        buffer.put(type).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        buffer.putInt(payload.length).put(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Creates a segment header.
+     *
+     * @param flags the segment flags
+     * @return a buffer holding the header, ready to be written
+     */
+    private static @NotNull ByteBuffer header(byte flags) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        buffer.putInt(MAGIC).put(VERSION).put(flags);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes the full contents of a buffer at the provided position.
+     *
+     * @param channel  the target channel
+     * @param buffer   the buffer to write
+     * @param position the target position
+     * @throws IOException if the write fails
+     */
+    private static void write(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer, position + buffer.position());
+    }
+
+    /**
+     * Returns the file name used by the segment with the provided id.
+     *
+     * @param id the segment id
+     * @return the segment file name
+     */
+    private static @NotNull String getFileName(long id) {
+        return String.format("segment-%08d.log", id);
+    }
+
+    /*
+    INTERNAL TYPES
+     */
+
+    /**
+     * A visitor receiving the records read from a segment.
+     */
+    @FunctionalInterface
+    private interface RecordVisitor
+    {
+        void visit(byte type, UUID uuid, long offset, int length, byte[] payload) throws IOException;
+    }
+
+    /**
+     * A single segment file, along with its size and the amount of garbage it holds.
+     */
+    private static final class Segment
+    {
+        private final long id;
+        private final File file;
+        private final FileChannel channel;
+        private final boolean compacted;
+        private final AtomicLong garbage = new AtomicLong();
+        private volatile long size;
+
+        private Segment(long id, File file, FileChannel channel, boolean compacted) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.compacted = compacted;
+        }
+    }
+
+    /**
+     * The location of a record inside a segment.
+     */
+    private static final class Location
+    {
+        private final long segment, offset;
+        private final int length;
+
+        private Location(long segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.moleculepowered.api.user.storage;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.moleculepowered.api.exception.user.UserStorageException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A {@link UserStorage} that keeps every user record as a row inside an embedded SQL database,
+ * such as H2 or SQLite, allowing large servers to avoid managing one file per user.
+ *
+ * <p>A single connection is opened on first use and its prepared statements are reused for every
+ * operation. Writes performed inside {@link #batch(Runnable)} are grouped into JDBC batches and
+ * committed as one transaction. Please note that the JDBC driver itself is not bundled with this
+ * library and must be provided by the server or your plugin.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * userManager.setStorage(SqlStorage.sqlite(new File(getDataFolder(), "users.db")));
+ * }</pre>
+ *
+ * @author OMGitzFROST
+ */
+public final class SqlStorage implements UserStorage
+{
+    private static final String TABLE = "molecule_users";
+    private static final int BATCH_SIZE = 500;
+    private final String url;
+    private final Dialect dialect;
+    private Connection connection;
+    private PreparedStatement selectStatement, upsertStatement, deleteStatement, existsStatement;
+    private boolean batching;
+    private int pending;
+
+    /*
+    CONSTRUCTORS
+     */
+
+    /**
+     * Creates a SQL storage using the provided JDBC url. The SQL dialect is detected from the url;
+     * currently, H2 ({@code jdbc:h2:}) and SQLite ({@code jdbc:sqlite:}) are supported.
+     *
+     * @param url the JDBC connection url
+     * @throws IllegalArgumentException when the url does not point to a supported database
+     */
+    public SqlStorage(@NotNull String url) {
+        this.url = url;
+        this.dialect = Dialect.fromUrl(url);
+    }
+
+    /**
+     * Creates a SQL storage backed by an embedded H2 database file.
+     *
+     * @param file the database file, without the H2 file extension
+     * @return a new SQL storage
+     */
+    public static @NotNull SqlStorage h2(@NotNull File file) {
+        return new SqlStorage("jdbc:h2:" + file.getAbsolutePath());
+    }
+
+    /**
+     * Creates a SQL storage backed by an embedded SQLite database file.
+     *
+     * @param file the database file
+     * @return a new SQL storage
+     */
+    public static @NotNull SqlStorage sqlite(@NotNull File file) {
+        return new SqlStorage("jdbc:sqlite:" + file.getAbsolutePath());
+    }
+
+    /*
+    STORAGE METHODS
+     */
+
+    /**
+     * Loads the record assigned to the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return the stored record, or null if no row exists
+     */
+    @Override
+    public synchronized @Nullable JsonObject load(@NotNull UUID uuid) {
+        try {
+            connect();
+            selectStatement.setString(1, uuid.toString());
+            try (ResultSet result = selectStatement.executeQuery()) {
+                if (!result.next()) return null;
+                try (Reader reader = result.getCharacterStream(1)) {
+                    return UserRecordCodec.readJson(reader);
+                }
+            }
+        } catch (SQLException | IOException | JsonParseException ex) {
+            throw new UserStorageException(ex, "Failed to load user {0} from the database", uuid);
+        }
+    }
+
+    /**
+     * Creates or replaces the row assigned to the provided UUID. When called inside
+     * {@link #batch(Runnable)}, the write is queued and committed with the rest of the batch.
+     *
+     * @param uuid the target UUID
+     * @param data the record to store
+     */
+    @Override
+    public synchronized void save(@NotNull UUID uuid, @NotNull JsonObject data) {
+        try {
+            connect();
+            upsertStatement.setString(1, uuid.toString());
+            upsertStatement.setString(2, UserRecordCodec.toJson(data));
+
+            if (!batching) {
+                upsertStatement.executeUpdate();
+                return;
+            }
+
+            upsertStatement.addBatch();
+            if (++pending >= BATCH_SIZE) {
+                upsertStatement.executeBatch();
+                pending = 0;
+            }
+        } catch (SQLException ex) {
+            throw new UserStorageException(ex, "Failed to save user {0} to the database", uuid);
+        }
+    }
+
+    /**
+     * Deletes the row assigned to the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return true if a row was deleted
+     */
+    @Override
+    public synchronized boolean delete(@NotNull UUID uuid) {
+        try {
+            connect();
+            deleteStatement.setString(1, uuid.toString());
+            return deleteStatement.executeUpdate() > 0;
+        } catch (SQLException ex) {
+            throw new UserStorageException(ex, "Failed to delete user {0} from the database", uuid);
+        }
+    }
+
+    /**
+     * Returns whether a row exists for the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return true if a row exists
+     */
+    @Override
+    public synchronized boolean exists(@NotNull UUID uuid) {
+        try {
+            connect();
+            existsStatement.setString(1, uuid.toString());
+            try (ResultSet result = existsStatement.executeQuery()) {
+                return result.next();
+            }
+        } catch (SQLException ex) {
+            throw new UserStorageException(ex, "Failed to look up user {0} in the database", uuid);
+        }
+    }
+
+    /**
+     * Returns the UUID of every row held by this storage.
+     *
+     * @return a collection of stored UUIDs
+     */
+    @Override
+    public synchronized @NotNull Collection<UUID> getUniqueIds() {
+        List<UUID> output = new ArrayList<>();
+        try {
+            connect();
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("SELECT uuid FROM " + TABLE)) {
+                while (result.next()) output.add(UUID.fromString(result.getString(1)));
+            }
+        } catch (SQLException ex) {
+            throw new UserStorageException(ex, "Failed to list users stored in the database");
+        }
+        return output;
+    }
+
+    /**
+     * Runs a group of writes as a single transaction. Every save performed by the task is added to
+     * a JDBC batch, and the whole batch is committed once the task completes. If any write fails,
+     * the transaction is rolled back.
+     *
+     * @param writes the task performing the writes
+     * @throws UserStorageException when the database cannot be reached, or the batch cannot be committed
+     */
+    @Override
+    public synchronized void batch(@NotNull Runnable writes) {
+        if (batching) {
+            writes.run();
+            return;
+        }
+
+        // CONNECT BEFORE THE TRANSACTION, SO A FAILED CONNECTION IS NEVER ROLLED BACK
+        try {
+            connect();
+        } catch (SQLException ex) {
+            throw new UserStorageException(ex, "Failed to connect to the user database");
+        }
+
+        try {
+            connection.setAutoCommit(false);
+            batching = true;
+
+            writes.run();
+            if (pending > 0) upsertStatement.executeBatch();
+            connection.commit();
+        } catch (SQLException | RuntimeException ex) {
+            try {
+                upsertStatement.clearBatch();
+                connection.rollback();
+            } catch (SQLException ignored) {
+            }
+            throw ex instanceof UserStorageException ? (UserStorageException) ex : new UserStorageException(ex, "Failed to commit a batch of user writes");
+        } finally {
+            batching = false;
+            pending = 0;
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Closes the prepared statements and the database connection held by this storage.
+     *
+     * @throws UserStorageException when the connection could not be closed
+     */
+    @Override
+    public synchronized void close() {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            throw new UserStorageException(ex, "Failed to close the database connection");
+        } finally {
+            connection = null;
+        }
+    }
+
+    /*
+    CONNECTION METHODS
+     */
+
+    /**
+     * Opens the database connection, creates the user table and prepares every statement used by
+     * this storage. If a connection is already open, this method does nothing. If a statement cannot
+     * be prepared, the connection is closed again.
+     *
+     * @throws SQLException if the database cannot be reached
+     */
+    private void connect() throws SQLException {
+        if (connection != null && !connection.isClosed()) return;
+
+        connection = DriverManager.getConnection(url);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(dialect.createTable);
+            }
+
+            selectStatement = connection.prepareStatement("SELECT data FROM " + TABLE + " WHERE uuid = ?");
+            upsertStatement = connection.prepareStatement(dialect.upsert);
+            deleteStatement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE uuid = ?");
+            existsStatement = connection.prepareStatement("SELECT 1 FROM " + TABLE + " WHERE uuid = ?");
+        } catch (SQLException ex) {
+
+            // NEVER KEEP A CONNECTION WHOSE STATEMENTS WERE NOT PREPARED, SO THE NEXT CALL RETRIES
+            try {
+                connection.close();
+            } catch (SQLException suppressed) {
+                ex.addSuppressed(suppressed);
+            }
+            connection = null;
+            throw ex;
+        }
+    }
+
+    /**
+     * The SQL dialects supported by this storage.
+     */
+    private enum Dialect
+    {
+        H2("CREATE TABLE IF NOT EXISTS " + TABLE + " (uuid VARCHAR(36) PRIMARY KEY, data CLOB NOT NULL)",
+                "MERGE INTO " + TABLE + " (uuid, data) KEY (uuid) VALUES (?, ?)"),
+        SQLITE("CREATE TABLE IF NOT EXISTS " + TABLE + " (uuid VARCHAR(36) PRIMARY KEY, data TEXT NOT NULL)",
+                "INSERT OR REPLACE INTO " + TABLE + " (uuid, data) VALUES (?, ?)");
+
+        private final String createTable, upsert;
+
+        Dialect(String createTable, String upsert) {
+            this.createTable = createTable;
+            this.upsert = upsert;
+        }
+
+        /**
+         * Returns the dialect matching the provided JDBC url.
+         *
+         * @param url the JDBC url
+         * @return the matching dialect
+         * @throws IllegalArgumentException when the database is not supported
+         */
+        static @NotNull Dialect fromUrl(@NotNull String url) {
+            if (url.startsWith("jdbc:h2:")) return H2;
+            if (url.startsWith("jdbc:sqlite:")) return SQLITE;
+            throw new IllegalArgumentException("Unsupported user storage database: " + url);
+        }
+    }
+}
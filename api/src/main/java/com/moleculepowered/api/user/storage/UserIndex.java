@@ -0,0 +1,412 @@
+package com.moleculepowered.api.user.storage;
+
+import com.moleculepowered.api.exception.user.UserStorageException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A persistent, memory-mapped hash index mapping each user's UUID to the location of their record
+ * and the last time it was written. Lookups hash the UUID straight to a slot inside the mapped file,
+ * so checking whether a record exists, locating it or reading its timestamp is usually a single
+ * page-cache hit, without touching the storage itself.
+ *
+ * <p>The index uses open addressing with linear probing. Each slot holds the UUID as two longs,
+ * followed by the location and timestamp; the meaning of the location is defined by the storage
+ * maintaining the index. The table doubles in size once it is 70% full.</p>
+ *
+ * <p>The index is a cache: storages must be able to rebuild it from their records. The file header
+ * records whether the index was synced cleanly, and {@link #wasClean()} reports whether the index
+ * can be trusted after it is opened.</p>
+ *
+ * <p>An index file may only be opened by one process at a time, since resizing it while another
+ * process has it mapped would crash that process. The file is locked while it is open, and opening
+ * an index already locked by another process fails.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserIndex
+{
+    private static final int MAGIC = 0x4D554958, VERSION = 1, HEADER_SIZE = 32, SLOT_SIZE = 32, INITIAL_CAPACITY = 1024;
+    private static final int CAPACITY_OFFSET = 8, SIZE_OFFSET = 12, CLEAN_OFFSET = 16;
+    private static final double LOAD_FACTOR = 0.7;
+    private final File file;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final boolean wasClean;
+    private MappedByteBuffer buffer;
+    private int capacity, size;
+    private boolean clean, closed;
+
+    /*
+    CONSTRUCTORS
+     */
+
+    /**
+     * Opens the index stored inside the provided file, creating it if necessary. If the file is
+     * missing, corrupt or was not synced cleanly, the index starts empty and {@link #wasClean()}
+     * returns false.
+     *
+     * @param file the index file
+     * @throws UserStorageException when the file cannot be opened, or is locked by another process
+     */
+    public UserIndex(@NotNull File file) {
+        this.file = file;
+        try {
+            File folder = file.getParentFile();
+            if (folder != null && !folder.exists() && !folder.mkdirs())
+                throw new IOException("Unable to create folder " + folder.getPath());
+
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.lock = tryLock(channel);
+            if (lock == null) {
+                channel.close();
+                throw new IOException("The index is in use by another process");
+            }
+
+            boolean valid = false;
+            if (channel.size() >= HEADER_SIZE) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                capacity = buffer.getInt(CAPACITY_OFFSET);
+                size = buffer.getInt(SIZE_OFFSET);
+                valid = buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION && capacity > 0
+                        && Integer.bitCount(capacity) == 1 && size >= 0 && size <= capacity
+                        && channel.size() >= HEADER_SIZE + (long) capacity * SLOT_SIZE;
+            }
+
+            this.wasClean = valid && buffer.get(CLEAN_OFFSET) == 1;
+            if (!wasClean) reset(INITIAL_CAPACITY);
+            else clean = true;
+        } catch (IOException ex) {
+            throw new UserStorageException(ex, "Failed to open the user index {0}", file.getPath());
+        }
+    }
+
+    /**
+     * Attempts to lock the whole index file for this process.
+     *
+     * @param channel the index file channel
+     * @return the lock, or null if the file is already locked
+     * @throws IOException if the lock cannot be requested
+     */
+    private static FileLock tryLock(@NotNull FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            return null;
+        }
+    }
+
+    /*
+    LOOKUP METHODS
+     */
+
+    /**
+     * Returns whether the index holds an entry for the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return true if an entry exists
+     */
+    public synchronized boolean contains(@NotNull UUID uuid) {
+        return find(uuid) >= 0;
+    }
+
+    /**
+     * Returns the location stored for the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return the location, or -1 if no entry exists
+     */
+    public synchronized long getLocation(@NotNull UUID uuid) {
+        int slot = find(uuid);
+        return slot >= 0 ? buffer.getLong(position(slot) + 16) : -1;
+    }
+
+    /**
+     * Returns the timestamp stored for the provided UUID, in milliseconds since the epoch.
+     *
+     * @param uuid the target UUID
+     * @return the timestamp, or -1 if no entry exists
+     */
+    public synchronized long getTimestamp(@NotNull UUID uuid) {
+        int slot = find(uuid);
+        return slot >= 0 ? buffer.getLong(position(slot) + 24) : -1;
+    }
+
+    /**
+     * Returns the UUID of every entry held by this index.
+     *
+     * @return a list of indexed UUIDs
+     */
+    public synchronized @NotNull List<UUID> getUniqueIds() {
+        List<UUID> output = new ArrayList<>(size);
+        for (int slot = 0; slot < capacity; slot++) {
+            int position = position(slot);
+            long msb = buffer.getLong(position), lsb = buffer.getLong(position + 8);
+            if (msb != 0 || lsb != 0) output.add(new UUID(msb, lsb));
+        }
+        return output;
+    }
+
+    /**
+     * Returns the number of entries held by this index.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the index was synced cleanly before it was opened. When false, the index
+     * started empty and should be rebuilt by its storage.
+     *
+     * @return true if the index can be trusted
+     */
+    public boolean wasClean() {
+        return wasClean;
+    }
+
+    /*
+    UPDATE METHODS
+     */
+
+    /**
+     * Creates or replaces the entry assigned to the provided UUID.
+     *
+     * @param uuid      the target UUID
+     * @param location  the location of the record
+     * @param timestamp the time the record was written
+     * @throws IllegalArgumentException when the nil UUID is provided, as it marks empty slots
+     */
+    public synchronized void put(@NotNull UUID uuid, long location, long timestamp) {
+        if (uuid.getMostSignificantBits() == 0 && uuid.getLeastSignificantBits() == 0)
+            throw new IllegalArgumentException("The nil UUID cannot be indexed");
+
+        ensureOpen();
+        markDirty();
+        int slot = find(uuid);
+        if (slot < 0) {
+            if (size + 1 > capacity * LOAD_FACTOR) {
+                grow();
+                slot = find(uuid);
+            }
+            slot = -slot - 1;
+            size++;
+            buffer.putInt(SIZE_OFFSET, size);
+        }
+
+        int position = position(slot);
+        buffer.putLong(position, uuid.getMostSignificantBits());
+        buffer.putLong(position + 8, uuid.getLeastSignificantBits());
+        buffer.putLong(position + 16, location);
+        buffer.putLong(position + 24, timestamp);
+    }
+
+    /**
+     * Removes the entry assigned to the provided UUID. Following entries of the same probe sequence
+     * are shifted back, so no tombstones are left behind.
+     *
+     * @param uuid the target UUID
+     * @return true if an entry was removed
+     */
+    public synchronized boolean remove(@NotNull UUID uuid) {
+        ensureOpen();
+        int slot = find(uuid);
+        if (slot < 0) return false;
+
+        markDirty();
+        int mask = capacity - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; ; next = (next + 1) & mask) {
+            int position = position(next);
+            long msb = buffer.getLong(position), lsb = buffer.getLong(position + 8);
+            if (msb == 0 && lsb == 0) break;
+
+            // MOVE THE ENTRY INTO THE HOLE IF ITS HOME SLOT DOES NOT LIE BETWEEN THE HOLE AND ITSELF
+            int home = hash(msb, lsb) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                copySlot(next, hole);
+                hole = next;
+            }
+        }
+        clearSlot(hole);
+        size--;
+        buffer.putInt(SIZE_OFFSET, size);
+        return true;
+    }
+
+    /**
+     * Removes every entry from this index.
+     */
+    public synchronized void clear() {
+        ensureOpen();
+        markDirty();
+        reset(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Forces every change to disk and marks the index as cleanly synced. Any later change marks
+     * it as dirty again until the next sync.
+     */
+    public synchronized void sync() {
+        ensureOpen();
+        buffer.put(CLEAN_OFFSET, (byte) 1);
+        buffer.force();
+        clean = true;
+    }
+
+    /**
+     * Syncs this index, then closes its file and releases its lock, allowing it to be opened again.
+     * Once closed, changing the index throws an {@link IllegalStateException}. Closing an index more
+     * than once has no effect.
+     */
+    public synchronized void close() {
+        if (closed) return;
+        sync();
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            throw new UserStorageException(ex, "Failed to close the user index {0}", file.getPath());
+        }
+    }
+
+    /**
+     * Returns whether this index has been closed.
+     *
+     * @return true if the index is closed
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Ensures this index has not been closed before it is changed, since its file is no longer locked.
+     */
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("The user index " + file.getPath() + " has been closed");
+    }
+
+    /*
+    TABLE METHODS
+     */
+
+    /**
+     * Returns the slot holding the provided UUID, or, if it is missing, {@code -(slot + 1)} where
+     * slot is the empty slot it would be inserted into.
+     */
+    private int find(@NotNull UUID uuid) {
+        long msb = uuid.getMostSignificantBits(), lsb = uuid.getLeastSignificantBits();
+        int mask = capacity - 1;
+        for (int slot = hash(msb, lsb) & mask; ; slot = (slot + 1) & mask) {
+            int position = position(slot);
+            long currentMsb = buffer.getLong(position), currentLsb = buffer.getLong(position + 8);
+            if (currentMsb == msb && currentLsb == lsb) return slot;
+            if (currentMsb == 0 && currentLsb == 0) return -slot - 1;
+        }
+    }
+
+    /**
+     * Doubles the capacity of the table, re-inserting every entry.
+     */
+    private void grow() {
+        int oldCapacity = capacity;
+        long[] entries = new long[size * 4];
+        int count = 0;
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int position = position(slot);
+            long msb = buffer.getLong(position), lsb = buffer.getLong(position + 8);
+            if (msb == 0 && lsb == 0) continue;
+            entries[count++] = msb;
+            entries[count++] = lsb;
+            entries[count++] = buffer.getLong(position + 16);
+            entries[count++] = buffer.getLong(position + 24);
+        }
+
+        reset(oldCapacity * 2);
+        int mask = capacity - 1;
+        for (int i = 0; i < count; i += 4) {
+            int slot = hash(entries[i], entries[i + 1]) & mask;
+            while (buffer.getLong(position(slot)) != 0 || buffer.getLong(position(slot) + 8) != 0) slot = (slot + 1) & mask;
+
+            int position = position(slot);
+            buffer.putLong(position, entries[i]);
+            buffer.putLong(position + 8, entries[i + 1]);
+            buffer.putLong(position + 16, entries[i + 2]);
+            buffer.putLong(position + 24, entries[i + 3]);
+        }
+        size = count / 4;
+        buffer.putInt(SIZE_OFFSET, size);
+    }
+
+    /**
+     * Maps an empty table of the provided capacity, replacing any previous content.
+     */
+    private void reset(int capacity) {
+        try {
+            long length = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+            if (length > Integer.MAX_VALUE) throw new IOException("The user index cannot grow past 2 GB");
+
+            channel.truncate(0);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            for (int position = 0; position < length; position += 8) buffer.putLong(position, 0);
+
+            this.capacity = capacity;
+            this.size = 0;
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putInt(SIZE_OFFSET, 0);
+            buffer.put(CLEAN_OFFSET, (byte) 0);
+            clean = false;
+        } catch (IOException ex) {
+            throw new UserStorageException(ex, "Failed to resize the user index {0}", file.getPath());
+        }
+    }
+
+    /**
+     * Clears the clean flag before the first change following a sync, so a crash before the next
+     * sync forces the index to be rebuilt.
+     */
+    private void markDirty() {
+        if (!clean) return;
+        buffer.put(CLEAN_OFFSET, (byte) 0);
+        buffer.force();
+        clean = false;
+    }
+
+    private void copySlot(int from, int to) {
+        int source = position(from), target = position(to);
+        for (int offset = 0; offset < SLOT_SIZE; offset += 8) buffer.putLong(target + offset, buffer.getLong(source + offset));
+    }
+
+    private void clearSlot(int slot) {
+        int position = position(slot);
+        for (int offset = 0; offset < SLOT_SIZE; offset += 8) buffer.putLong(position + offset, 0);
+    }
+
+    private static int position(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * Spreads the bits of a UUID into a slot hash, using the finalizer of MurmurHash3.
+     */
+    private static int hash(long msb, long lsb) {
+        long hash = msb ^ (lsb * 0x9E3779B97F4A7C15L);
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+}
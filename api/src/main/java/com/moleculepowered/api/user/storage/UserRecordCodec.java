@@ -0,0 +1,537 @@
+package com.moleculepowered.api.user.storage;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The shared, thread-safe codec used by every {@link UserStorage} to encode user records, either as
+ * JSON text or in a compact binary format, and to decode them back into a {@link JsonObject}.
+ *
+ * <p>JSON text is read and written with Gson's streaming {@link JsonReader} and {@link JsonWriter},
+ * without going through a {@code Gson} instance or its type adapters, and encoding reuses a buffer
+ * held by each thread instead of allocating a new one for every record.</p>
+ *
+ * <p>An encoded record starts with a short header made of a magic marker and a format version,
+ * followed by a dictionary holding every key used by the record exactly once. Values are then
+ * written as typed entries referencing that dictionary, so keys are never repeated and numbers,
+ * booleans and nulls take a single byte or a variable-length integer instead of their text form.</p>
+ *
+ * <p>Decoding is transparent: {@link #decode(byte[])} accepts both binary records and plain JSON
+ * text, which allows existing JSON records to be read and migrated without any extra step.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserRecordCodec
+{
+    /**
+     * The current version of the binary format. Records written with a newer version are rejected.
+     */
+    public static final int VERSION = 1;
+    private static final byte[] MAGIC = {(byte) 0x8F, 'M', 'U'};
+    private static final byte NULL = 0, TRUE = 1, FALSE = 2, LONG = 3, DOUBLE = 4, NUMBER = 5, STRING = 6, ARRAY = 7, OBJECT = 8;
+
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+    private static final ThreadLocal<TextBuffer> TEXT_BUFFERS = ThreadLocal.withInitial(TextBuffer::new);
+
+    private UserRecordCodec() {
+    }
+
+    /*
+    ENCODING METHODS
+     */
+
+    /**
+     * Encodes the provided record into the binary format.
+     *
+     * @param record the record to encode
+     * @return the encoded record
+     */
+    public static byte[] encode(@NotNull JsonObject record) {
+        try {
+            Buffer bytes = buffer();
+            DataOutputStream output = new DataOutputStream(bytes);
+
+            // COLLECT EVERY KEY INTO THE DICTIONARY
+            Map<String, Integer> dictionary = new LinkedHashMap<>();
+            collectKeys(record, dictionary);
+
+            // WRITE HEADER AND DICTIONARY
+            output.write(MAGIC);
+            output.writeByte(VERSION);
+            writeVarInt(output, dictionary.size());
+            for (String key : dictionary.keySet()) writeString(output, key);
+
+            // WRITE THE VALUE TREE
+            writeElement(output, record, dictionary);
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // NOT THROWN BY IN-MEMORY STREAMS
+        }
+    }
+
+    /**
+     * Encodes the provided record as UTF-8 JSON text.
+     *
+     * @param record the record to encode
+     * @param pretty whether the output should be indented for readability
+     * @return the encoded record
+     */
+    public static byte[] encodeJson(@NotNull JsonObject record, boolean pretty) {
+        try {
+            TextBuffer text = TEXT_BUFFERS.get();
+            text.reset();
+            writeJson(record, text, pretty);
+            return text.toString().getBytes(StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // NOT THROWN BY IN-MEMORY STREAMS
+        }
+    }
+
+    /**
+     * Returns the provided record as compact JSON text.
+     *
+     * @param record the record to encode
+     * @return the JSON text
+     */
+    public static @NotNull String toJson(@NotNull JsonObject record) {
+        StringWriter writer = new StringWriter(256);
+        try {
+            writeJson(record, writer, false);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // NOT THROWN BY IN-MEMORY STREAMS
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Streams the provided record as JSON text into the provided writer. Null values are kept.
+     * The writer is flushed but not closed.
+     *
+     * @param record the record to encode
+     * @param writer the target writer
+     * @param pretty whether the output should be indented for readability
+     * @throws IOException if the writer fails
+     */
+    public static void writeJson(@NotNull JsonObject record, @NotNull Writer writer, boolean pretty) throws IOException {
+        JsonWriter output = new JsonWriter(writer);
+        output.setSerializeNulls(true);
+        if (pretty) output.setIndent("  ");
+        writeJsonElement(output, record);
+        output.flush();
+    }
+
+    private static void writeJsonElement(@NotNull JsonWriter output, @NotNull JsonElement element) throws IOException {
+        if (element.isJsonNull()) {
+            output.nullValue();
+        } else if (element.isJsonObject()) {
+            output.beginObject();
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                output.name(entry.getKey());
+                writeJsonElement(output, entry.getValue());
+            }
+            output.endObject();
+        } else if (element.isJsonArray()) {
+            output.beginArray();
+            for (JsonElement child : element.getAsJsonArray()) writeJsonElement(output, child);
+            output.endArray();
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) output.value(primitive.getAsBoolean());
+            else if (primitive.isNumber()) output.value(primitive.getAsNumber());
+            else output.value(primitive.getAsString());
+        }
+    }
+
+    /**
+     * Adds every key used by the provided element, including nested objects, to the dictionary.
+     *
+     * @param element    the element to inspect
+     * @param dictionary the dictionary mapping each key to its index
+     */
+    private static void collectKeys(@NotNull JsonElement element, @NotNull Map<String, Integer> dictionary) {
+        if (element.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                dictionary.putIfAbsent(entry.getKey(), dictionary.size());
+                collectKeys(entry.getValue(), dictionary);
+            }
+        } else if (element.isJsonArray()) {
+            for (JsonElement child : element.getAsJsonArray()) collectKeys(child, dictionary);
+        }
+    }
+
+    private static void writeElement(@NotNull DataOutputStream output, @NotNull JsonElement element, @NotNull Map<String, Integer> dictionary) throws IOException {
+        if (element.isJsonNull()) {
+            output.writeByte(NULL);
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            output.writeByte(OBJECT);
+            writeVarInt(output, object.entrySet().size());
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                writeVarInt(output, dictionary.get(entry.getKey()));
+                writeElement(output, entry.getValue(), dictionary);
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            output.writeByte(ARRAY);
+            writeVarInt(output, array.size());
+            for (JsonElement child : array) writeElement(output, child, dictionary);
+        } else {
+            writePrimitive(output, element.getAsJsonPrimitive());
+        }
+    }
+
+    private static void writePrimitive(@NotNull DataOutputStream output, @NotNull JsonPrimitive primitive) throws IOException {
+        if (primitive.isBoolean()) {
+            output.writeByte(primitive.getAsBoolean() ? TRUE : FALSE);
+        } else if (primitive.isString()) {
+            output.writeByte(STRING);
+            writeString(output, primitive.getAsString());
+        } else {
+            Number number = primitive.getAsNumber();
+            if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+                output.writeByte(LONG);
+                writeVarLong(output, number.longValue());
+            } else if (number instanceof Double || number instanceof Float) {
+                output.writeByte(DOUBLE);
+                output.writeDouble(number.doubleValue());
+            } else {
+                writeNumber(output, number);
+            }
+        }
+    }
+
+    /**
+     * Writes a number of unknown type, such as a number parsed from JSON text. Whole numbers that fit
+     * inside a long are stored as one; every other number keeps its exact text form.
+     */
+    private static void writeNumber(@NotNull DataOutputStream output, @NotNull Number number) throws IOException {
+        String text = number.toString();
+        if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+            try {
+                long value = Long.parseLong(text);
+                output.writeByte(LONG);
+                writeVarLong(output, value);
+                return;
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        output.writeByte(NUMBER);
+        writeString(output, text);
+    }
+
+    /*
+    DECODING METHODS
+     */
+
+    /**
+     * Decodes the provided record. Both binary records and plain JSON text are accepted.
+     *
+     * @param data the encoded record
+     * @return the decoded record
+     * @throws JsonParseException when the record is malformed or uses an unsupported format version
+     */
+    public static @NotNull JsonObject decode(byte[] data) {
+        if (!isBinary(data)) {
+            try (Reader reader = new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8)) {
+                return readJson(reader);
+            } catch (IOException ex) {
+                throw new JsonParseException("Malformed JSON user record", ex);
+            }
+        }
+
+        int version = data[MAGIC.length] & 0xFF;
+        if (version > VERSION)
+            throw new JsonParseException("Unsupported user record version " + version + ", expected " + VERSION + " or lower");
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(data, MAGIC.length + 1, data.length - MAGIC.length - 1))) {
+
+            // READ THE KEY DICTIONARY
+            int size = readSize(input);
+            List<String> dictionary = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) dictionary.add(readString(input));
+
+            // READ THE VALUE TREE
+            JsonElement element = readElement(input, dictionary);
+            if (!element.isJsonObject()) throw new JsonParseException("User record is not an object");
+            return element.getAsJsonObject();
+        } catch (IOException | IndexOutOfBoundsException | NumberFormatException ex) {
+            throw new JsonParseException("Malformed binary user record", ex);
+        }
+    }
+
+    /**
+     * Streams a record from the provided JSON text. The reader is not closed.
+     *
+     * @param reader the source reader
+     * @return the decoded record
+     * @throws IOException        if the reader fails
+     * @throws JsonParseException when the text is not a JSON object
+     */
+    public static @NotNull JsonObject readJson(@NotNull Reader reader) throws IOException {
+        JsonReader input = new JsonReader(reader);
+        try {
+            if (input.peek() != JsonToken.BEGIN_OBJECT) throw new JsonParseException("User record is not a JSON object");
+            JsonObject record = readJsonElement(input).getAsJsonObject();
+            if (input.peek() != JsonToken.END_DOCUMENT) throw new JsonParseException("Unexpected content after the user record");
+            return record;
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException ex) {
+            throw new JsonParseException("Malformed JSON user record", ex);
+        }
+    }
+
+    private static @NotNull JsonElement readJsonElement(@NotNull JsonReader input) throws IOException {
+        switch (input.peek()) {
+            case BEGIN_OBJECT: {
+                JsonObject object = new JsonObject();
+                input.beginObject();
+                while (input.hasNext()) object.add(input.nextName(), readJsonElement(input));
+                input.endObject();
+                return object;
+            }
+            case BEGIN_ARRAY: {
+                JsonArray array = new JsonArray();
+                input.beginArray();
+                while (input.hasNext()) array.add(readJsonElement(input));
+                input.endArray();
+                return array;
+            }
+            case STRING:
+                return new JsonPrimitive(input.nextString());
+            case NUMBER:
+                return new JsonPrimitive(parseNumber(input.nextString()));
+            case BOOLEAN:
+                return new JsonPrimitive(input.nextBoolean());
+            case NULL:
+                input.nextNull();
+                return JsonNull.INSTANCE;
+            default:
+                throw new JsonParseException("Unexpected token " + input.peek() + " inside a user record");
+        }
+    }
+
+    /**
+     * Parses the text form of a number. Whole numbers are returned as a {@link Long}, or as a
+     * {@link BigInteger} when they do not fit inside one, and every other number as a
+     * {@link BigDecimal}, so no precision is lost.
+     *
+     * @param text the number text
+     * @return the parsed number
+     * @throws NumberFormatException when the text is not a number
+     */
+    private static @NotNull Number parseNumber(@NotNull String text) {
+        if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+            BigInteger value = new BigInteger(text);
+            return value.bitLength() < 64 ? (Number) value.longValue() : value;
+        }
+        return new BigDecimal(text);
+    }
+
+    /**
+     * Returns whether the provided data starts with the binary record header.
+     *
+     * @param data the encoded record
+     * @return true if the data holds a binary record
+     */
+    public static boolean isBinary(byte[] data) {
+        if (data.length <= MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    private static @NotNull JsonElement readElement(@NotNull DataInputStream input, @NotNull List<String> dictionary) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case NULL:
+                return JsonNull.INSTANCE;
+            case TRUE:
+                return new JsonPrimitive(true);
+            case FALSE:
+                return new JsonPrimitive(false);
+            case LONG:
+                return new JsonPrimitive(readVarLong(input));
+            case DOUBLE:
+                return new JsonPrimitive(input.readDouble());
+            case NUMBER:
+                return new JsonPrimitive(parseNumber(readString(input)));
+            case STRING:
+                return new JsonPrimitive(readString(input));
+            case ARRAY: {
+                int size = readSize(input);
+                JsonArray array = new JsonArray();
+                for (int i = 0; i < size; i++) array.add(readElement(input, dictionary));
+                return array;
+            }
+            case OBJECT: {
+                int size = readSize(input);
+                JsonObject object = new JsonObject();
+                for (int i = 0; i < size; i++) object.add(dictionary.get(readVarInt(input)), readElement(input, dictionary));
+                return object;
+            }
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    /*
+    PRIMITIVE METHODS
+     */
+
+    /**
+     * Returns the encoding buffer held by the current thread, emptied and ready for use.
+     */
+    private static @NotNull Buffer buffer() {
+        Buffer buffer = BUFFERS.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    private static void writeString(@NotNull DataOutputStream output, @NotNull String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(output, bytes.length);
+        output.write(bytes);
+    }
+
+    private static @NotNull String readString(@NotNull DataInputStream input) throws IOException {
+        int length = readSize(input);
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(@NotNull DataOutputStream output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    /**
+     * Reads a length or element count, rejecting values that cannot fit in the remaining bytes,
+     * since every element takes at least one byte.
+     */
+    private static int readSize(@NotNull DataInputStream input) throws IOException {
+        int size = readVarInt(input);
+        if (size < 0 || size > input.available()) throw new IOException("Size " + size + " exceeds record size");
+        return size;
+    }
+
+    private static int readVarInt(@NotNull DataInputStream input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte current = input.readByte();
+            value |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) return value;
+        }
+        throw new IOException("VarInt is too long");
+    }
+
+    /**
+     * Writes a zig-zag encoded variable-length long, so small negative numbers stay small.
+     */
+    private static void writeVarLong(@NotNull DataOutputStream output, long value) throws IOException {
+        value = (value << 1) ^ (value >> 63);
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    private static long readVarLong(@NotNull DataInputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte current = input.readByte();
+            value |= (long) (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) return (value >>> 1) ^ -(value & 1);
+        }
+        throw new IOException("VarLong is too long");
+    }
+
+    /**
+     * A reusable output buffer. Buffers grown past 64 KB by an unusually large record are shrunk
+     * back on the next reset, so a single large record does not pin memory on its thread.
+     */
+    private static final class Buffer extends ByteArrayOutputStream
+    {
+        private Buffer() {
+            super(1024);
+        }
+
+        @Override
+        public synchronized void reset() {
+            if (buf.length > 64 * 1024) buf = new byte[1024];
+            super.reset();
+        }
+    }
+
+    /**
+     * A reusable character buffer used to write JSON text, following the same sizing rules as
+     * {@link Buffer}.
+     */
+    private static final class TextBuffer extends Writer
+    {
+        private StringBuilder builder = new StringBuilder(1024);
+
+        private void reset() {
+            if (builder.capacity() > 64 * 1024) builder = new StringBuilder(1024);
+            builder.setLength(0);
+        }
+
+        @Override
+        public void write(int c) {
+            builder.append((char) c);
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            builder.append(buffer, offset, length);
+        }
+
+        @Override
+        public void write(@NotNull String text, int offset, int length) {
+            builder.append(text, offset, offset + length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return builder.toString();
+        }
+    }
+}
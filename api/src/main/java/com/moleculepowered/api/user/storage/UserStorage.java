@@ -0,0 +1,124 @@
+package com.moleculepowered.api.user.storage;
+
+import com.google.gson.JsonObject;
+import com.moleculepowered.api.exception.user.UserStorageException;
+import com.moleculepowered.api.user.User;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * The persistence layer used by our {@link User} objects. A storage backend is only responsible for
+ * reading and writing user records, keyed by their {@link UUID}, leaving the user model itself
+ * independent of where and how its data is kept.
+ *
+ * <p>Implementations must be safe to call from multiple threads. Any failure to read or write
+ * a record is reported using a {@link UserStorageException}.</p>
+ *
+ * <p>For a list of our default backends, see {@link JsonFileStorage}, {@link SqlStorage} and {@link LogStorage}.</p>
+ *
+ * @author OMGitzFROST
+ */
+public interface UserStorage extends AutoCloseable
+{
+    /**
+     * Loads the record assigned to the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return the stored record, or null if none exists
+     * @throws UserStorageException when the record cannot be read
+     */
+    @Nullable JsonObject load(@NotNull UUID uuid);
+
+    /**
+     * Creates or replaces the record assigned to the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @param data the record to store
+     * @throws UserStorageException when the record cannot be written
+     */
+    void save(@NotNull UUID uuid, @NotNull JsonObject data);
+
+    /**
+     * Deletes the record assigned to the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return true if a record was deleted
+     * @throws UserStorageException when the record cannot be deleted
+     */
+    boolean delete(@NotNull UUID uuid);
+
+    /**
+     * Returns whether a record exists for the provided UUID.
+     *
+     * @param uuid the target UUID
+     * @return true if a record exists
+     */
+    boolean exists(@NotNull UUID uuid);
+
+    /**
+     * Returns the UUID of every record held by this storage.
+     *
+     * @return a collection of stored UUIDs
+     */
+    @NotNull Collection<UUID> getUniqueIds();
+
+    /**
+     * Returns the time at which the record assigned to the provided UUID was last written, or last
+     * marked as seen using {@link #touch(UUID)}. By default, this method returns -1; backends that
+     * track it, such as {@link JsonFileStorage}, answer without reading the record.
+     *
+     * @param uuid the target UUID
+     * @return the timestamp in milliseconds since the epoch, or -1 if unknown
+     */
+    default long getLastSeen(@NotNull UUID uuid) {
+        return -1;
+    }
+
+    /**
+     * Marks the record assigned to the provided UUID as seen now, without rewriting it. By default,
+     * this method does nothing.
+     *
+     * @param uuid the target UUID
+     */
+    default void touch(@NotNull UUID uuid) {
+    }
+
+    /**
+     * Performs the provided action for every record held by this storage. By default, this method
+     * loads each record individually; backends able to read their records sequentially should
+     * override it to make bulk iteration cheaper.
+     *
+     * @param action the action performed for each record
+     */
+    default void forEach(@NotNull BiConsumer<UUID, JsonObject> action) {
+        for (UUID uuid : getUniqueIds()) {
+            JsonObject data = load(uuid);
+            if (data != null) action.accept(uuid, data);
+        }
+    }
+
+    /**
+     * Runs a group of writes as a single batch. Backends that support it, such as databases, may
+     * group every {@link #save(UUID, JsonObject)} performed by the provided task into one transaction.
+     * By default, the task is simply executed.
+     *
+     * <p>Backends may hold their own lock while the task runs, so the task should only save records
+     * it has already copied, and must not wait on a user's monitor.</p>
+     *
+     * @param writes the task performing the writes
+     */
+    default void batch(@NotNull Runnable writes) {
+        writes.run();
+    }
+
+    /**
+     * Releases any resources held by this storage. By default, this method does nothing.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,43 @@
+package com.moleculepowered.api.user.sync;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * The channel used by a {@link UserInvalidationBus} to exchange messages with the other servers
+ * sharing the same user storage. A transport only moves opaque messages; encoding them, ignoring
+ * the node's own messages and ordering them is handled by the bus.
+ *
+ * <p>Messages may be lost, duplicated or reordered, so transports do not need to guarantee
+ * delivery. Implementations must be safe to call from multiple threads.</p>
+ *
+ * <p>For a list of our default transports, see {@link LocalTransport} and {@link UdpTransport}.</p>
+ *
+ * @author OMGitzFROST
+ */
+public interface InvalidationTransport extends AutoCloseable
+{
+    /**
+     * Sends a message to every other node listening on this transport.
+     *
+     * @param message the encoded message
+     */
+    void publish(byte[] message);
+
+    /**
+     * Sets the receiver called with every message arriving from another node. Receivers may be
+     * called from any thread.
+     *
+     * @param receiver the message receiver, or null to stop receiving messages
+     */
+    void setReceiver(@Nullable Consumer<byte[]> receiver);
+
+    /**
+     * Releases any resources held by this transport. By default, this method does nothing.
+     */
+    @Override
+    default void close() {
+    }
+}
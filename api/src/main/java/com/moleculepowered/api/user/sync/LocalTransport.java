@@ -0,0 +1,57 @@
+package com.moleculepowered.api.user.sync;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * An {@link InvalidationTransport} connecting nodes running inside the same JVM, mostly useful
+ * for testing. Every transport created with the same channel name receives the messages published
+ * by the others, synchronously on the publishing thread.
+ *
+ * @author OMGitzFROST
+ */
+public final class LocalTransport implements InvalidationTransport
+{
+    private static final ConcurrentMap<String, List<LocalTransport>> CHANNELS = new ConcurrentHashMap<>();
+    private final String channel;
+    private volatile Consumer<byte[]> receiver;
+
+    /**
+     * Creates a transport joining the provided channel.
+     *
+     * @param channel the channel name
+     */
+    public LocalTransport(@NotNull String channel) {
+        this.channel = channel;
+        CHANNELS.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>()).add(this);
+    }
+
+    @Override
+    public void publish(byte[] message) {
+        for (LocalTransport peer : CHANNELS.getOrDefault(channel, new CopyOnWriteArrayList<>())) {
+            Consumer<byte[]> target = peer.receiver;
+            if (peer != this && target != null) target.accept(message.clone());
+        }
+    }
+
+    @Override
+    public void setReceiver(@Nullable Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    /**
+     * Leaves the channel, after which no message is sent or received.
+     */
+    @Override
+    public void close() {
+        receiver = null;
+        List<LocalTransport> peers = CHANNELS.get(channel);
+        if (peers != null) peers.remove(this);
+    }
+}
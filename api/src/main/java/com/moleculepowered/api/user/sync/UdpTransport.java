@@ -0,0 +1,120 @@
+package com.moleculepowered.api.user.sync;
+
+import com.moleculepowered.api.exception.user.UserStorageException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An {@link InvalidationTransport} exchanging messages as UDP datagrams with a fixed list of peers,
+ * typically the other servers of a network sharing one user-data volume. Every message is sent to
+ * each peer as a single datagram, and datagrams are received on a daemon thread.
+ *
+ * <p>UDP does not guarantee delivery, so a lost message leaves a peer's cached user stale until
+ * it is written or evicted again. This is acceptable for cache invalidation, but this transport
+ * should only be used on a trusted network, as messages are not authenticated.</p>
+ *
+ * @author OMGitzFROST
+ */
+public final class UdpTransport implements InvalidationTransport
+{
+    private static final int MAX_MESSAGE_SIZE = 512;
+    private final DatagramSocket socket;
+    private final List<InetSocketAddress> peers;
+    private volatile Consumer<byte[]> receiver;
+
+    /**
+     * Creates a transport listening on the provided port, and sending messages to the provided peers.
+     *
+     * @param port  the local port
+     * @param peers the addresses of the other nodes
+     * @throws UserStorageException when the socket cannot be opened
+     */
+    public UdpTransport(int port, @NotNull Collection<InetSocketAddress> peers) {
+        this.peers = new ArrayList<>(peers);
+        try {
+            this.socket = new DatagramSocket(port);
+        } catch (SocketException ex) {
+            throw new UserStorageException(ex, "Failed to open the invalidation socket on port {0}", port);
+        }
+
+        Thread thread = new Thread(this::receive, "Molecule User Invalidation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Creates a transport listening on the provided port, and sending messages to the provided peers.
+     *
+     * @param port  the local port
+     * @param peers the addresses of the other nodes
+     * @throws UserStorageException when the socket cannot be opened
+     */
+    public UdpTransport(int port, @NotNull InetSocketAddress... peers) {
+        this(port, Arrays.asList(peers));
+    }
+
+    @Override
+    public void publish(byte[] message) {
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(message, message.length, peer));
+            } catch (IOException ex) {
+                new UserStorageException(ex, "Failed to send a user invalidation to {0}", peer).printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void setReceiver(@Nullable Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    /**
+     * Receives datagrams until the socket is closed, handing each one to the receiver.
+     */
+    private void receive() {
+        byte[] buffer = new byte[MAX_MESSAGE_SIZE];
+        while (!socket.isClosed()) {
+            try {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                socket.receive(packet);
+
+                Consumer<byte[]> target = receiver;
+                if (target != null) target.accept(Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength()));
+            } catch (IOException ex) {
+                if (!socket.isClosed()) ex.printStackTrace();
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns the port this transport is listening on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Closes the socket, stopping the receiving thread.
+     */
+    @Override
+    public void close() {
+        receiver = null;
+        socket.close();
+    }
+}
@@ -0,0 +1,256 @@
+package com.moleculepowered.api.user.sync;
+
+import com.google.gson.JsonObject;
+import com.moleculepowered.api.user.UserManager;
+import com.moleculepowered.api.user.storage.UserStorage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * An optional bus keeping the users cached by several servers consistent when they share the same
+ * user storage. Each time a node writes or deletes a record, the bus bumps the user's version and
+ * publishes it through an {@link InvalidationTransport}; peers receiving a newer version reload the
+ * user if it is resident, or drop them if their record has been deleted.
+ *
+ * <p>Versions are taken from a hybrid logical clock, based on the current time but always ahead
+ * of every version seen so far, so they can be compared across nodes. Messages carrying a version
+ * that is not newer than the last one seen for the same user are ignored, which makes duplicated
+ * or reordered messages harmless. Reloading a user never writes it back, so invalidations cannot
+ * bounce between nodes.</p>
+ *
+ * <p>The bus should be started before any user is loaded, as it intercepts writes by wrapping the
+ * manager's storage. Example usage:</p>
+ * <pre>{@code
+ * UserInvalidationBus bus = new UserInvalidationBus(userManager, new UdpTransport(25580, peers));
+ * bus.start();
+ * userManager.onEnable();
+ * }</pre>
+ *
+ * @author OMGitzFROST
+ */
+public final class UserInvalidationBus implements AutoCloseable
+{
+    private static final byte MAGIC = 0x55, UPDATED = 0, DELETED = 1;
+    private static final int MESSAGE_SIZE = 42;
+    private final UserManager manager;
+    private final InvalidationTransport transport;
+    private final UUID nodeId = UUID.randomUUID();
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrentMap<UUID, Long> versions = new ConcurrentHashMap<>();
+    private UserStorage storage;
+
+    /*
+    CONSTRUCTORS
+     */
+
+    /**
+     * Creates a bus invalidating the users of the provided manager, using the provided transport.
+     *
+     * @param manager   the user manager kept consistent
+     * @param transport the transport connecting the nodes
+     */
+    public UserInvalidationBus(@NotNull UserManager manager, @NotNull InvalidationTransport transport) {
+        this.manager = manager;
+        this.transport = transport;
+    }
+
+    /*
+    LIFECYCLE METHODS
+     */
+
+    /**
+     * Starts publishing the writes made by this node, and applying the ones received from peers.
+     * The manager's storage is marked as shared, so its known users filter no longer rules out users
+     * created by peers. If the bus is already started, this method does nothing.
+     *
+     * @see UserManager#setSharedStorage(boolean)
+     */
+    public synchronized void start() {
+        if (storage != null) return;
+
+        storage = manager.getStorage();
+        manager.setSharedStorage(true);
+        manager.setStorage(new PublishingStorage(storage));
+        transport.setReceiver(this::receive);
+    }
+
+    /**
+     * Stops the bus, restores the manager's storage and closes the transport.
+     */
+    @Override
+    public synchronized void close() {
+        if (storage == null) return;
+
+        transport.setReceiver(null);
+        if (manager.getStorage() instanceof PublishingStorage) manager.setStorage(storage);
+        storage = null;
+        transport.close();
+    }
+
+    /*
+    VERSION METHODS
+     */
+
+    /**
+     * Bumps the version of the provided user and publishes it to every peer.
+     *
+     * @param uuid    the written user's UUID
+     * @param deleted whether the record has been deleted
+     */
+    public void publish(@NotNull UUID uuid, boolean deleted) {
+        long version = clock.updateAndGet(current -> Math.max(current + 1, System.currentTimeMillis() << 12));
+        versions.merge(uuid, version, Math::max);
+
+        ByteBuffer message = ByteBuffer.allocate(MESSAGE_SIZE);
+        message.put(MAGIC).put(deleted ? DELETED : UPDATED);
+        message.putLong(nodeId.getMostSignificantBits()).putLong(nodeId.getLeastSignificantBits());
+        message.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        message.putLong(version);
+        transport.publish(message.array());
+    }
+
+    /**
+     * Applies a message received from a peer. Messages sent by this node, malformed messages and
+     * versions that are not newer than the last one seen are ignored.
+     *
+     * @param data the received message
+     */
+    private void receive(byte[] data) {
+        if (data.length != MESSAGE_SIZE || data[0] != MAGIC) return;
+
+        ByteBuffer message = ByteBuffer.wrap(data, 1, MESSAGE_SIZE - 1);
+        boolean deleted = message.get() == DELETED;
+        UUID node = new UUID(message.getLong(), message.getLong());
+        UUID uuid = new UUID(message.getLong(), message.getLong());
+        long version = message.getLong();
+        if (node.equals(nodeId)) return;
+
+        // KEEP THE CLOCK AHEAD OF EVERY VERSION SEEN, AND SKIP VERSIONS ALREADY APPLIED
+        clock.accumulateAndGet(version, Math::max);
+        long[] previous = new long[1];
+        versions.compute(uuid, (key, current) -> {
+            previous[0] = current != null ? current : 0;
+            return Math.max(previous[0], version);
+        });
+        if (version > previous[0]) manager.invalidate(uuid, deleted);
+    }
+
+    /**
+     * Returns the last version seen for the provided user, whether written locally or by a peer.
+     *
+     * @param uuid the target UUID
+     * @return the version, or 0 if the user has not been written since the bus started
+     */
+    public long getVersion(@NotNull UUID uuid) {
+        return versions.getOrDefault(uuid, 0L);
+    }
+
+    /**
+     * Returns the identifier of this node, which peers use to ignore its own messages.
+     *
+     * @return the node identifier
+     */
+    public @NotNull UUID getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * A storage publishing a version bump after every successful write or deletion. Writes made
+     * inside a batch are only published once the whole batch has been committed, since peers
+     * reloading the user before then would read the previous record.
+     */
+    private final class PublishingStorage implements UserStorage
+    {
+        private final UserStorage delegate;
+        private final ThreadLocal<Map<UUID, Boolean>> batched = new ThreadLocal<>();
+
+        private PublishingStorage(@NotNull UserStorage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public @Nullable JsonObject load(@NotNull UUID uuid) {
+            return delegate.load(uuid);
+        }
+
+        @Override
+        public void save(@NotNull UUID uuid, @NotNull JsonObject data) {
+            delegate.save(uuid, data);
+            written(uuid, false);
+        }
+
+        @Override
+        public boolean delete(@NotNull UUID uuid) {
+            boolean deleted = delegate.delete(uuid);
+            if (deleted) written(uuid, true);
+            return deleted;
+        }
+
+        /**
+         * Publishes a write, or records it until the batch running on this thread is committed.
+         */
+        private void written(@NotNull UUID uuid, boolean deleted) {
+            Map<UUID, Boolean> pending = batched.get();
+            if (pending != null) pending.put(uuid, deleted);
+            else publish(uuid, deleted);
+        }
+
+        @Override
+        public boolean exists(@NotNull UUID uuid) {
+            return delegate.exists(uuid);
+        }
+
+        @Override
+        public @NotNull Collection<UUID> getUniqueIds() {
+            return delegate.getUniqueIds();
+        }
+
+        @Override
+        public long getLastSeen(@NotNull UUID uuid) {
+            return delegate.getLastSeen(uuid);
+        }
+
+        @Override
+        public void touch(@NotNull UUID uuid) {
+            delegate.touch(uuid);
+        }
+
+        @Override
+        public void forEach(@NotNull BiConsumer<UUID, JsonObject> action) {
+            delegate.forEach(action);
+        }
+
+        @Override
+        public void batch(@NotNull Runnable writes) {
+            if (batched.get() != null) {
+                delegate.batch(writes);
+                return;
+            }
+
+            // PUBLISH THE BATCHED WRITES ONLY ONCE THEY HAVE BEEN COMMITTED, AND NEVER IF ROLLED BACK
+            Map<UUID, Boolean> pending = new LinkedHashMap<>();
+            batched.set(pending);
+            try {
+                delegate.batch(writes);
+            } finally {
+                batched.remove();
+            }
+            pending.forEach(UserInvalidationBus.this::publish);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
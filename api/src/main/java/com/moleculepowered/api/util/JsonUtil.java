@@ -0,0 +1,122 @@
+package com.moleculepowered.api.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A utility class that provides additional methods for manipulating {@link JsonElement} objects
+ * that are not provided by Gson itself.
+ *
+ * @author OMGitzFROST
+ */
+public final class JsonUtil
+{
+    /**
+     * Returns a deep copy of the provided object. Nested objects and arrays are copied as well, while
+     * primitives, which cannot be changed, are shared. Unlike {@code JsonElement#deepCopy()}, which
+     * only became public in Gson 2.8.2, this method works with every Gson version shipped by the
+     * supported servers.
+     *
+     * @param object the object to copy
+     * @return a copy of the object
+     */
+    public static @NotNull JsonObject copy(@NotNull JsonObject object) {
+        JsonObject output = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) output.add(entry.getKey(), copy(entry.getValue()));
+        return output;
+    }
+
+    /**
+     * Returns a deep copy of the provided value.
+     *
+     * @param value the value to copy
+     * @return a copy of the value
+     * @see #copy(JsonObject)
+     */
+    public static @NotNull JsonElement copy(@NotNull JsonElement value) {
+        if (value.isJsonObject()) return copy(value.getAsJsonObject());
+        if (value.isJsonArray()) {
+            JsonArray output = new JsonArray();
+            for (JsonElement element : value.getAsJsonArray()) output.add(copy(element));
+            return output;
+        }
+        return value;
+    }
+
+    /**
+     * Restores the provided object in place, so it holds the same content as the source. Nested
+     * objects and arrays present in both are restored in place as well, so references to them
+     * held elsewhere observe the restored content. Values of the source are moved into the target,
+     * so the source should be a copy that is no longer used, typically taken using
+     * {@link #copy(JsonObject)}.
+     *
+     * <p>Example usage:</p>
+     * <pre>{@code
+     * JsonObject previous = JsonUtil.copy(record);
+     * try {
+     *     applyChanges(record);
+     * } catch (RuntimeException ex) {
+     *     JsonUtil.restore(record, previous);
+     *     throw ex;
+     * }
+     * }</pre>
+     *
+     * @param target the object to restore
+     * @param source the content to restore
+     */
+    public static void restore(@NotNull JsonObject target, @NotNull JsonObject source) {
+        List<String> removed = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> entry : target.entrySet()) {
+            if (!source.has(entry.getKey())) removed.add(entry.getKey());
+        }
+        for (String key : removed) target.remove(key);
+        for (Map.Entry<String, JsonElement> entry : source.entrySet()) {
+            JsonElement current = target.get(entry.getKey()), previous = entry.getValue();
+            if (current != null && current.isJsonObject() && previous.isJsonObject()) {
+                restore(current.getAsJsonObject(), previous.getAsJsonObject());
+            } else if (current != null && current.isJsonArray() && previous.isJsonArray()) {
+                restore(current.getAsJsonArray(), previous.getAsJsonArray());
+            } else target.add(entry.getKey(), previous);
+        }
+    }
+
+    /**
+     * Restores the provided array in place, so it holds the same elements as the source.
+     *
+     * @param target the array to restore
+     * @param source the elements to restore
+     * @see #restore(JsonObject, JsonObject)
+     */
+    public static void restore(@NotNull JsonArray target, @NotNull JsonArray source) {
+        for (Iterator<JsonElement> iterator = target.iterator(); iterator.hasNext(); ) {
+            iterator.next();
+            iterator.remove();
+        }
+        for (JsonElement element : source) target.add(element);
+    }
+
+    /**
+     * Converts a supported value into the JSON value it is stored as. Strings and characters become
+     * JSON text, numbers and booleans native JSON values, and JSON values are returned as they are.
+     *
+     * @param value the value to convert
+     * @return the converted value
+     * @throws IllegalArgumentException when the value is not a supported type
+     */
+    public static @NotNull JsonElement toElement(@NotNull Object value) {
+        if (value instanceof JsonElement) return (JsonElement) value;
+        if (value instanceof Number) return new JsonPrimitive((Number) value);
+        if (value instanceof Boolean) return new JsonPrimitive((Boolean) value);
+        if (value instanceof Character) return new JsonPrimitive((Character) value);
+        if (value instanceof String) return new JsonPrimitive((String) value);
+        throw new IllegalArgumentException("Unsupported user data type: " + value.getClass().getName());
+    }
+}
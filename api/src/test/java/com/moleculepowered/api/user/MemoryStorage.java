@@ -0,0 +1,46 @@
+package com.moleculepowered.api.user;
+
+import com.google.gson.JsonObject;
+import com.moleculepowered.api.user.storage.UserStorage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A storage keeping every record in memory, used by tests that do not exercise a real storage.
+ */
+public class MemoryStorage implements UserStorage
+{
+    public final Map<UUID, JsonObject> records = new ConcurrentHashMap<>();
+
+    @Override
+    public @Nullable JsonObject load(@NotNull UUID uuid) {
+        JsonObject record = records.get(uuid);
+        return record != null ? record.deepCopy() : null;
+    }
+
+    @Override
+    public void save(@NotNull UUID uuid, @NotNull JsonObject data) {
+        records.put(uuid, data.deepCopy());
+    }
+
+    @Override
+    public boolean delete(@NotNull UUID uuid) {
+        return records.remove(uuid) != null;
+    }
+
+    @Override
+    public boolean exists(@NotNull UUID uuid) {
+        return records.containsKey(uuid);
+    }
+
+    @Override
+    public @NotNull Collection<UUID> getUniqueIds() {
+        return new ArrayList<>(records.keySet());
+    }
+}
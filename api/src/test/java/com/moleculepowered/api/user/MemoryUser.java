@@ -0,0 +1,177 @@
+package com.moleculepowered.api.user;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.moleculepowered.api.user.storage.UserStorage;
+import com.moleculepowered.api.util.JsonUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.UUID;
+
+/**
+ * A user held in memory, following the versioned write path expected by {@link UserManager}: a
+ * write copies the record and its version, and the user is only marked clean once the version it
+ * committed is still the current one.
+ */
+public class MemoryUser implements User
+{
+    private final UUID uuid;
+    private final String name;
+    private final UserStorage storage;
+    private final JsonObject record = new JsonObject();
+    private boolean writeBehind, dirty;
+    private long version;
+    private int reloads;
+    private UserWrite pending;
+
+    public MemoryUser(@NotNull UUID uuid, @Nullable String name, @NotNull UserStorage storage) {
+        this.uuid = uuid;
+        this.name = name;
+        this.storage = storage;
+    }
+
+    @Override
+    public @NotNull UUID getUniqueId() {
+        return uuid;
+    }
+
+    @Override
+    public @Nullable String getName() {
+        return name;
+    }
+
+    @Override
+    public @Nullable String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public @Nullable String getCustomName() {
+        return null;
+    }
+
+    @Override
+    public @Nullable String getLocale() {
+        return null;
+    }
+
+    @Override
+    public void setDisplayName(@Nullable String input) {
+    }
+
+    @Override
+    public void setCustomName(@Nullable String input) {
+    }
+
+    @Override
+    public void setLocale(@NotNull String input) {
+    }
+
+    @Override
+    public void create() {
+        storage.save(uuid, getData());
+    }
+
+    @Override
+    public synchronized void reload() {
+        JsonObject stored = storage.load(uuid);
+        JsonUtil.restore(record, stored != null ? stored : new JsonObject());
+        dirty = false;
+        reloads++;
+    }
+
+    /**
+     * Returns the number of times this user was reloaded from storage.
+     *
+     * @return the number of reloads
+     */
+    public synchronized int getReloads() {
+        return reloads;
+    }
+
+    @Override
+    public void delete() {
+        storage.delete(uuid);
+    }
+
+    @Override
+    public <T> void update(T player) {
+    }
+
+    @Override
+    public synchronized void setData(@NotNull String key, Object value) {
+        if (value == null) record.remove(key);
+        else record.add(key, JsonUtil.toElement(value));
+        version++;
+        dirty = true;
+        if (!writeBehind) flush();
+    }
+
+    @Override
+    public synchronized @Nullable String getData(@NotNull String key, @Nullable String def) {
+        JsonElement value = record.get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : def;
+    }
+
+    @Override
+    public synchronized @NotNull JsonObject getData() {
+        return record.deepCopy();
+    }
+
+    @Override
+    public synchronized void flush() {
+        while (pending != null) {
+            try {
+                wait();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!dirty) return;
+        storage.save(uuid, record);
+        dirty = false;
+    }
+
+    @Override
+    public synchronized @Nullable UserWrite prepareWrite() {
+        if (!dirty || pending != null) return null;
+        pending = new UserWrite(uuid, record.deepCopy(), version);
+        return pending;
+    }
+
+    @Override
+    public synchronized void completeWrite(@NotNull UserWrite write) {
+        if (pending == write) pending = null;
+        if (write.getVersion() == version) dirty = false;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void abortWrite(@NotNull UserWrite write) {
+        if (pending == write) pending = null;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public synchronized void setWriteBehind(boolean toggle) {
+        this.writeBehind = toggle;
+    }
+
+    @Override
+    public @NotNull UserStorage getStorage() {
+        return storage;
+    }
+
+    @Override
+    public @NotNull File getFile() {
+        return new File(uuid + ".json");
+    }
+}
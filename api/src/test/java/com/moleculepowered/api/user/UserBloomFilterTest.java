@@ -0,0 +1,87 @@
+package com.moleculepowered.api.user;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserBloomFilterTest
+{
+    @TempDir
+    File folder;
+
+    @Test
+    void neverReportsAddedEntriesAsMissing() {
+        UserBloomFilter filter = new UserBloomFilter(10_000, 0.01);
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID uuid = UUID.randomUUID();
+            added.add(uuid);
+            filter.put(uuid);
+            filter.put("Player" + i);
+        }
+
+        for (UUID uuid : added) assertTrue(filter.mightContain(uuid));
+        for (int i = 0; i < 10_000; i++) assertTrue(filter.mightContain("player" + i), "names ignore case");
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        UserBloomFilter filter = new UserBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.put(UUID.randomUUID());
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) if (filter.mightContain(UUID.randomUUID())) falsePositives++;
+        assertTrue(falsePositives < 2_000, "false positive rate was " + falsePositives / 1000.0 + "%");
+        assertFalse(filter.isSaturated());
+    }
+
+    @Test
+    void reportsSaturationPastExpectedSize() {
+        UserBloomFilter filter = new UserBloomFilter(100, 0.01);
+        for (int i = 0; i < 200; i++) filter.put(UUID.randomUUID());
+        assertTrue(filter.isSaturated());
+    }
+
+    @Test
+    void savedFilterLoadsWithSameContents() {
+        File file = new File(folder, "known-users.dat");
+        UserBloomFilter filter = new UserBloomFilter(1_000, 0.01);
+        UUID uuid = UUID.randomUUID();
+        filter.put(uuid);
+        filter.put("Notch");
+        filter.save(file);
+
+        UserBloomFilter loaded = UserBloomFilter.load(file);
+        assertNotNull(loaded);
+        assertTrue(loaded.mightContain(uuid));
+        assertTrue(loaded.mightContain("notch"));
+        assertEquals(filter.size(), loaded.size());
+        assertEquals(filter.getExpected(), loaded.getExpected());
+        assertFalse(new File(folder, "known-users.dat.tmp").exists());
+    }
+
+    @Test
+    void unusableFilesLoadAsNull() throws Exception {
+        assertNull(UserBloomFilter.load(new File(folder, "missing.dat")));
+
+        File file = new File(folder, "known-users.dat");
+        new UserBloomFilter(1_000, 0.01).save(file);
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(raw.length() / 2);
+        }
+        assertNull(UserBloomFilter.load(file), "a truncated filter must not be trusted");
+
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(0);
+            raw.writeInt(0);
+        }
+        assertNull(UserBloomFilter.load(file), "a filter with an unknown header must not be trusted");
+    }
+}
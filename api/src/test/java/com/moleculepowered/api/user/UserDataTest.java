@@ -0,0 +1,163 @@
+package com.moleculepowered.api.user;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.moleculepowered.api.util.JsonUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers the default methods of {@link UserData}, using an implementation that only provides the
+ * methods it had to implement before those defaults were added.
+ */
+class UserDataTest
+{
+    @Test
+    void typedValuesRoundTripThroughSetData() {
+        UserData data = new LegacyUserData();
+        data.setInt("kills", 5);
+        data.setLong("playtime", 1L << 40);
+        data.setDouble("balance", 12.5);
+        data.setBoolean("vip", true);
+
+        assertEquals(5, data.getInt("kills", 0));
+        assertEquals(1L << 40, data.getLong("playtime", 0));
+        assertEquals(12.5, data.getDouble("balance", 0));
+        assertTrue(data.getBoolean("vip", false));
+    }
+
+    @Test
+    void typedGettersFallBackToDefault() {
+        UserData data = new LegacyUserData();
+        data.setData("kills", "many");
+
+        assertEquals(7, data.getInt("kills", 7));
+        assertEquals(7, data.getLong("missing", 7));
+        assertEquals(1.5, data.getDouble("kills", 1.5));
+        assertTrue(data.getBoolean("missing", true));
+    }
+
+    @Test
+    void incrementTreatsMissingValueAsZero() {
+        UserData data = new LegacyUserData();
+        assertEquals(3, data.increment("kills", 3));
+        assertEquals(1, data.increment("kills", -2));
+        assertEquals(1, data.getLong("kills", 0));
+    }
+
+    @Test
+    void nullValueRemovesKey() {
+        UserData data = new LegacyUserData();
+        data.setData("rank", "admin");
+        data.setData("rank", null);
+
+        assertFalse(data.getData().has("rank"));
+        assertNull(data.getData("rank"));
+    }
+
+    @Test
+    void jsonNullKeepsKeyPresent() {
+        UserData data = new LegacyUserData();
+        data.setData("rank", JsonNull.INSTANCE);
+
+        assertTrue(data.getData().has("rank"));
+    }
+
+    @Test
+    void nestedKeysAreWrittenThroughTopLevelValue() {
+        LegacyUserData data = new LegacyUserData();
+        UserKey kills = UserKey.of("stats.pvp.kills");
+        data.setInt(kills, 4);
+        data.setBoolean(UserKey.of("stats.flying"), true);
+
+        assertEquals(4, data.getInt(kills, 0));
+        assertTrue(data.getBoolean(UserKey.of("stats.flying"), false));
+        assertEquals("4", data.getData(kills, null));
+        assertEquals(2, data.writes, "each nested change should be a single top-level write");
+
+        assertEquals(5, data.increment(kills, 1));
+        assertEquals(5, data.getData().getAsJsonObject("stats").getAsJsonObject("pvp").get("kills").getAsInt());
+    }
+
+    @Test
+    void nestedRemovalOnlyWritesWhenKeyExisted() {
+        LegacyUserData data = new LegacyUserData();
+        data.setData(UserKey.of("stats.kills"), 1);
+        data.setData(UserKey.of("stats.deaths"), null);
+        assertEquals(1, data.writes);
+
+        data.setData(UserKey.of("stats.kills"), null);
+        assertEquals(2, data.writes);
+        assertNull(data.getElement(UserKey.of("stats.kills")));
+        assertTrue(data.getData().getAsJsonObject("stats").entrySet().isEmpty());
+    }
+
+    @Test
+    void nestedWriteRejectsUnsupportedValues() {
+        UserData data = new LegacyUserData();
+        assertThrows(IllegalArgumentException.class, () -> data.setData(UserKey.of("stats.kills"), new Object()));
+        assertFalse(data.getData().has("stats"));
+    }
+
+    @Test
+    void writeBehindHooksDefaultToImmediateWrites() {
+        UserData data = new LegacyUserData();
+        data.setWriteBehind(true);
+        data.setInt("kills", 1);
+
+        assertFalse(data.isDirty());
+        assertNull(data.prepareWrite());
+        assertThrows(UnsupportedOperationException.class, data::getStorage);
+    }
+
+    /**
+     * An in-memory implementation of the methods {@link UserData} has always required.
+     */
+    private static final class LegacyUserData implements UserData
+    {
+        private final JsonObject record = new JsonObject();
+        private int writes;
+
+        @Override
+        public void create() {
+        }
+
+        @Override
+        public void delete() {
+            record.entrySet().clear();
+        }
+
+        @Override
+        public <T> void update(T player) {
+        }
+
+        @Override
+        public void setData(@NotNull String key, Object value) {
+            writes++;
+            if (value == null) record.remove(key);
+            else record.add(key, JsonUtil.toElement(value));
+        }
+
+        @Override
+        public @Nullable String getData(@NotNull String key, @Nullable String def) {
+            JsonElement value = record.get(key);
+            return value != null && value.isJsonPrimitive() ? value.getAsString() : def;
+        }
+
+        @Override
+        public @NotNull JsonObject getData() {
+            return record;
+        }
+
+        @Override
+        public @NotNull File getFile() {
+            return new File("legacy.json");
+        }
+    }
+}
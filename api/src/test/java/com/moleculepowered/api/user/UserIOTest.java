@@ -0,0 +1,57 @@
+package com.moleculepowered.api.user;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserIOTest
+{
+    @Test
+    void fullQueueRejectsMainThreadAndBlocksOthers() throws Exception {
+        CountDownLatch resume = new CountDownLatch(1);
+        UserIO.setMainThread(Thread.currentThread());
+        try {
+            // SATURATE THE WORKERS AND THE QUEUE UNTIL THE MAIN THREAD IS REJECTED
+            CompletableFuture<Void> rejected = null;
+            for (int i = 0; i < 10_000 && rejected == null; i++) {
+                CompletableFuture<Void> future = UserIO.runAsync(() -> await(resume));
+                if (future.isCompletedExceptionally()) rejected = future;
+            }
+            assertNotNull(rejected, "the main thread should be rejected once the queue is full");
+            ExecutionException failure = assertThrows(ExecutionException.class, rejected::get);
+            assertTrue(failure.getCause() instanceof RejectedExecutionException);
+
+            // OTHER THREADS WAIT FOR ROOM INSTEAD
+            AtomicBoolean ran = new AtomicBoolean();
+            Thread producer = new Thread(() -> UserIO.executor().execute(() -> ran.set(true)));
+            producer.start();
+            producer.join(200);
+            assertTrue(producer.isAlive(), "the producer should wait for room in the queue");
+
+            resume.countDown();
+            producer.join(5000);
+            assertFalse(producer.isAlive());
+            assertTrue(UserIO.awaitIdle(Duration.ofSeconds(30)));
+            assertTrue(ran.get());
+        } finally {
+            resume.countDown();
+            UserIO.setMainThread(null);
+            UserIO.awaitIdle(Duration.ofSeconds(30));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.moleculepowered.api.user;
+
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserManagerTest
+{
+    private UserManager manager;
+
+    @AfterEach
+    void tearDown() {
+        if (manager != null) manager.onDisable();
+    }
+
+    @Test
+    void overflowEvictionWritesBackOffTheCallingThread() throws Exception {
+        CountDownLatch saving = new CountDownLatch(1), resume = new CountDownLatch(1);
+        MemoryStorage storage = new MemoryStorage() {
+            @Override
+            public void save(@NotNull UUID uuid, @NotNull JsonObject data) {
+                saving.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                super.save(uuid, data);
+            }
+        };
+        manager = new UserManager(storage) {};
+        manager.setFlushInterval(TimeUnit.HOURS.toMillis(1)).setMaximumSize(1);
+
+        MemoryUser cold = new MemoryUser(UUID.randomUUID(), "cold", storage);
+        manager.addUser(cold);
+        cold.setInt("kills", 3);
+        Thread.sleep(5);
+
+        // THE CALLER MUST NOT WAIT FOR THE EVICTED USER TO BE WRITTEN
+        long started = System.nanoTime();
+        manager.addUser(new MemoryUser(UUID.randomUUID(), "hot", storage));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 1000);
+
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+        assertTrue(manager.isResident(cold.getUniqueId()), "user must stay resident until written");
+
+        resume.countDown();
+        assertTrue(UserIO.awaitIdle(java.time.Duration.ofSeconds(5)));
+        assertFalse(manager.isResident(cold.getUniqueId()));
+        assertEquals(3, storage.records.get(cold.getUniqueId()).get("kills").getAsInt());
+        assertEquals(1, manager.getStats().getEvictionCount());
+    }
+
+    @Test
+    void failedEvictionKeepsUserResident() throws Exception {
+        MemoryStorage storage = new MemoryStorage() {
+            @Override
+            public void save(@NotNull UUID uuid, @NotNull JsonObject data) {
+                throw new IllegalStateException("storage unavailable");
+            }
+        };
+        manager = new UserManager(storage) {};
+        manager.setFlushInterval(TimeUnit.HOURS.toMillis(1));
+
+        MemoryUser user = new MemoryUser(UUID.randomUUID(), "user", storage);
+        manager.addUser(user);
+        user.setInt("kills", 1);
+        manager.setIdleTimeout(50);
+        Thread.sleep(60);
+        manager.cleanUp();
+
+        assertTrue(manager.isResident(user.getUniqueId()));
+        assertTrue(user.isDirty());
+        assertTrue(manager.getStats().getWriteBackFailureCount() >= 1);
+    }
+
+    @Test
+    void changesMadeDuringFlushStayDirty() {
+        MemoryUser[] user = new MemoryUser[1];
+        MemoryStorage storage = new MemoryStorage() {
+            @Override
+            public void save(@NotNull UUID uuid, @NotNull JsonObject data) {
+                super.save(uuid, data);
+                if (data.get("kills").getAsInt() == 1) user[0].setInt("kills", 2);
+            }
+        };
+        manager = new UserManager(storage) {};
+        manager.setFlushInterval(TimeUnit.HOURS.toMillis(1));
+        user[0] = new MemoryUser(UUID.randomUUID(), "user", storage);
+        manager.addUser(user[0]);
+        user[0].setInt("kills", 1);
+
+        manager.flushAll();
+        assertEquals(1, storage.records.get(user[0].getUniqueId()).get("kills").getAsInt());
+        assertTrue(user[0].isDirty(), "a change made after the copy must not be marked clean");
+
+        manager.flushAll();
+        assertEquals(2, storage.records.get(user[0].getUniqueId()).get("kills").getAsInt());
+        assertFalse(user[0].isDirty());
+    }
+
+    @Test
+    void failedBatchIsRetried() {
+        boolean[] failing = {true};
+        MemoryStorage storage = new MemoryStorage() {
+            @Override
+            public void batch(@NotNull Runnable writes) {
+                if (failing[0]) throw new IllegalStateException("storage unavailable");
+                super.batch(writes);
+            }
+        };
+        manager = new UserManager(storage) {};
+        manager.setFlushInterval(TimeUnit.HOURS.toMillis(1));
+        MemoryUser user = new MemoryUser(UUID.randomUUID(), "user", storage);
+        manager.addUser(user);
+        user.setInt("kills", 1);
+
+        manager.flushAll();
+        assertTrue(user.isDirty());
+        assertNull(storage.records.get(user.getUniqueId()));
+
+        // AN ABORTED WRITE RELEASES THE USER, SO THEIR OWN FLUSH DOES NOT WAIT FOREVER
+        failing[0] = false;
+        manager.flushAll();
+        assertFalse(user.isDirty());
+        assertEquals(1, storage.records.get(user.getUniqueId()).get("kills").getAsInt());
+    }
+
+    @Test
+    void flushWritesEachUserToItsOwnStorage() {
+        MemoryStorage shared = new MemoryStorage(), own = new MemoryStorage() {
+            @Override
+            public void batch(@NotNull Runnable writes) {
+                throw new IllegalStateException("storage unavailable");
+            }
+        };
+        manager = new UserManager(shared) {};
+        manager.setFlushInterval(TimeUnit.HOURS.toMillis(1));
+        MemoryUser first = new MemoryUser(UUID.randomUUID(), "first", shared), second = new MemoryUser(UUID.randomUUID(), "second", own);
+        manager.addUser(first);
+        manager.addUser(second);
+        first.setInt("kills", 1);
+        second.setInt("kills", 2);
+
+        // A FAILING STORAGE ONLY KEEPS ITS OWN USERS DIRTY
+        manager.flushAll();
+        assertEquals(1, shared.records.get(first.getUniqueId()).get("kills").getAsInt());
+        assertNull(shared.records.get(second.getUniqueId()));
+        assertFalse(first.isDirty());
+        assertTrue(second.isDirty());
+    }
+
+    @Test
+    void discardedWritesAreSkipped() {
+        UserWrite[] write = new UserWrite[1];
+        MemoryStorage storage = new MemoryStorage();
+        manager = new UserManager(storage) {};
+        manager.setFlushInterval(TimeUnit.HOURS.toMillis(1));
+
+        MemoryUser user = new MemoryUser(UUID.randomUUID(), "user", storage) {
+            @Override
+            public synchronized UserWrite prepareWrite() {
+                write[0] = super.prepareWrite();
+                // A DELETION RACING THE FLUSH DISCARDS THE COPY BEFORE IT IS WRITTEN
+                if (write[0] != null) write[0].discard();
+                return write[0];
+            }
+        };
+        manager.addUser(user);
+        user.setInt("kills", 1);
+
+        manager.flushAll();
+        assertTrue(write[0].isDiscarded());
+        assertNull(storage.records.get(user.getUniqueId()));
+    }
+
+    @Test
+    void completeFilterRulesOutUnknownUsers() {
+        MemoryStorage storage = new MemoryStorage();
+        manager = new UserManager(storage) {};
+        UUID known = UUID.randomUUID(), unknown = UUID.randomUUID();
+
+        manager.setKnownUsers(new UserBloomFilter(1_000, 0.001));
+        manager.markKnown(known, "Notch");
+        assertTrue(manager.isKnown(unknown), "an incomplete filter cannot rule anyone out");
+
+        manager.setKnownUsersComplete(true);
+        assertTrue(manager.isKnown(known));
+        assertTrue(manager.isKnown("notch"));
+        assertFalse(manager.isKnown(unknown));
+        assertFalse(manager.isKnown("jeb_"));
+        assertFalse(manager.findUser(unknown).isPresent());
+    }
+
+    @Test
+    void sharedStorageIsCheckedOnFilterMiss() {
+        MemoryStorage storage = new MemoryStorage();
+        manager = new UserManager(storage) {};
+        manager.setKnownUsers(new UserBloomFilter(1_000, 0.001)).setKnownUsersComplete(true).setSharedStorage(true);
+
+        // ANOTHER SERVER CREATES THE USER AFTER THE FILTER WAS BUILT
+        UUID uuid = UUID.randomUUID();
+        storage.save(uuid, new JsonObject());
+
+        assertTrue(manager.isKnown(uuid));
+        assertTrue(manager.getKnownUsers().mightContain(uuid), "a user found in storage is added to the filter");
+        assertFalse(manager.isKnown(UUID.randomUUID()));
+        assertTrue(manager.isKnown("anyone"), "names cannot be checked against a shared storage");
+    }
+
+    @Test
+    void invalidationMarksRemoteUsersKnown() {
+        MemoryStorage storage = new MemoryStorage();
+        manager = new UserManager(storage) {};
+        manager.setKnownUsers(new UserBloomFilter(1_000, 0.001)).setKnownUsersComplete(true);
+
+        UUID uuid = UUID.randomUUID();
+        manager.invalidate(uuid, false);
+        assertTrue(manager.isKnown(uuid));
+    }
+
+    @Test
+    void usersWithoutNameStayLoadable() {
+        MemoryStorage storage = new MemoryStorage();
+        UUID stored = UUID.randomUUID();
+        manager = new UserManager(storage) {
+            @Override
+            protected User loadUser(@NotNull UUID uuid) {
+                return uuid.equals(stored) ? new MemoryUser(uuid, null, storage) : null;
+            }
+        };
+
+        MemoryUser unnamed = new MemoryUser(UUID.randomUUID(), null, storage);
+        assertTrue(manager.addUser(unnamed));
+        assertEquals(1, manager.addUsers(java.util.Collections.singletonList(new MemoryUser(UUID.randomUUID(), null, storage))));
+        manager.reindex(unnamed);
+
+        assertTrue(manager.findUser(stored).isPresent());
+        assertFalse(manager.findUser("unnamed").isPresent());
+        assertTrue(manager.findNamesByPrefix("", 10).isEmpty());
+    }
+}
@@ -0,0 +1,133 @@
+package com.moleculepowered.api.user;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserNameIndexTest
+{
+    @Test
+    void lookupsIgnoreCase() {
+        UserNameIndex index = new UserNameIndex();
+        UUID uuid = UUID.randomUUID();
+        index.put(uuid, "Notch");
+
+        assertEquals(uuid, index.get("notch"));
+        assertEquals(uuid, index.get("NOTCH"));
+        assertNull(index.get("Notc"));
+        assertNull(index.get("Notch2"));
+    }
+
+    @Test
+    void prefixSearchIsAlphabeticalAndLimited() {
+        UserNameIndex index = new UserNameIndex();
+        for (String name : Arrays.asList("Steve", "steam", "Stella", "Alex", "st", "Stephen")) index.put(UUID.randomUUID(), name);
+
+        assertEquals(Arrays.asList("st", "steam", "Stella", "Stephen", "Steve"), index.findNamesByPrefix("ST", 10));
+        assertEquals(Arrays.asList("st", "steam"), index.findNamesByPrefix("st", 2));
+        assertEquals(Collections.singletonList("Alex"), index.findNamesByPrefix("a", 10));
+        assertTrue(index.findNamesByPrefix("x", 10).isEmpty());
+        assertTrue(index.findNamesByPrefix("st", 0).isEmpty());
+        assertEquals(6, index.findNamesByPrefix("", 10).size());
+    }
+
+    @Test
+    void splittingAnEdgeKeepsBothNames() {
+        UserNameIndex index = new UserNameIndex();
+        UUID longer = UUID.randomUUID(), shorter = UUID.randomUUID();
+        index.put(longer, "abcdef");
+        index.put(shorter, "abc");
+
+        assertEquals(longer, index.get("abcdef"));
+        assertEquals(shorter, index.get("abc"));
+        assertNull(index.get("abcd"));
+        assertEquals(Arrays.asList("abc", "abcdef"), index.findNamesByPrefix("ab", 5));
+    }
+
+    @Test
+    void renamingReplacesPreviousEntry() {
+        UserNameIndex index = new UserNameIndex();
+        UUID uuid = UUID.randomUUID();
+        index.put(uuid, "OldName");
+        index.put(uuid, "NewName");
+
+        assertNull(index.get("OldName"));
+        assertEquals(uuid, index.get("newname"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void takingANameRemovesItFromItsPreviousOwner() {
+        UserNameIndex index = new UserNameIndex();
+        UUID first = UUID.randomUUID(), second = UUID.randomUUID();
+        index.put(first, "Shared");
+        index.put(second, "shared");
+
+        assertEquals(second, index.get("SHARED"));
+        assertFalse(index.contains(first));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removalKeepsRemainingNamesReachable() {
+        UserNameIndex index = new UserNameIndex();
+        UUID a = UUID.randomUUID(), ab = UUID.randomUUID(), abc = UUID.randomUUID();
+        index.put(a, "a");
+        index.put(ab, "ab");
+        index.put(abc, "abc");
+
+        assertTrue(index.remove(ab));
+        assertFalse(index.remove(ab));
+        assertEquals(a, index.get("a"));
+        assertEquals(abc, index.get("abc"));
+        assertNull(index.get("ab"));
+        assertEquals(Arrays.asList("a", "abc"), index.findNamesByPrefix("a", 10));
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertNull(index.get("a"));
+    }
+
+    @Test
+    void matchesSortedMapOnRandomNames() {
+        UserNameIndex index = new UserNameIndex();
+        TreeMap<String, UUID> expected = new TreeMap<>();
+        Random random = new Random(42);
+        List<UUID> ids = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = 1 + random.nextInt(8);
+            for (int j = 0; j < length; j++) name.append((char) ('a' + random.nextInt(4)));
+
+            UUID uuid = UUID.randomUUID();
+            ids.add(uuid);
+            index.put(uuid, name.toString());
+            expected.values().remove(uuid);
+            expected.put(name.toString().toLowerCase(Locale.ROOT), uuid);
+
+            // OCCASIONALLY REMOVE A RANDOM USER
+            if (random.nextInt(5) == 0) {
+                UUID removed = ids.get(random.nextInt(ids.size()));
+                index.remove(removed);
+                expected.values().remove(removed);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        for (String prefix : Arrays.asList("", "a", "ab", "cad", "dddd")) {
+            List<UUID> matches = new ArrayList<>(expected.subMap(prefix, prefix + Character.MAX_VALUE).values());
+            assertEquals(matches.subList(0, Math.min(25, matches.size())), index.findByPrefix(prefix, 25), prefix);
+        }
+        expected.forEach((name, uuid) -> assertEquals(uuid, index.get(name)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.moleculepowered.api.user;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSnapshotTest
+{
+    private static JsonObject record() {
+        JsonObject stats = new JsonObject();
+        stats.addProperty("kills", 7);
+        JsonArray homes = new JsonArray();
+        homes.add("spawn");
+
+        JsonObject record = new JsonObject();
+        record.addProperty("name", "Notch");
+        record.addProperty("balance", "12.5");
+        record.addProperty("vip", true);
+        record.add("stats", stats);
+        record.add("homes", homes);
+        return record;
+    }
+
+    @Test
+    void laterChangesToRecordAreNotVisible() {
+        JsonObject record = record();
+        UserSnapshot snapshot = new UserSnapshot(UUID.randomUUID(), "Notch", null, null, "en_us", record);
+        record.addProperty("name", "jeb_");
+        record.getAsJsonObject("stats").addProperty("kills", 8);
+
+        assertEquals("Notch", snapshot.getString("name", null));
+        assertEquals(7L, ((Number) snapshot.get(UserKey.of("stats.kills"))).longValue());
+    }
+
+    @Test
+    void typedGettersParseLikeJsonPrimitives() {
+        UserSnapshot snapshot = new UserSnapshot(UUID.randomUUID(), "Notch", null, null, null, record());
+
+        assertEquals(12.5, snapshot.getDouble("balance", 0));
+        assertTrue(snapshot.getBoolean("vip", false));
+        assertEquals(3, snapshot.getInt("name", 3));
+        assertEquals(3, snapshot.getInt("stats", 3), "objects are not primitives");
+        assertNull(snapshot.getString("missing", null));
+    }
+
+    @Test
+    void nestedValuesAreReadOnly() {
+        UserSnapshot snapshot = new UserSnapshot(UUID.randomUUID(), "Notch", null, null, null, record());
+
+        Map<?, ?> stats = (Map<?, ?>) snapshot.get("stats");
+        List<?> homes = (List<?>) snapshot.get("homes");
+        assertThrows(UnsupportedOperationException.class, stats::clear);
+        assertThrows(UnsupportedOperationException.class, homes::clear);
+        assertSame(stats, snapshot.get("stats"), "values are returned without copying");
+    }
+
+    @Test
+    void derivedSnapshotSharesUnchangedValues() {
+        UserSnapshot snapshot = new UserSnapshot(UUID.randomUUID(), "Notch", null, null, null, record());
+        UserSnapshot derived = snapshot.with("balance", new JsonPrimitive(20)).with("vip", null);
+
+        assertSame(snapshot.get("stats"), derived.get("stats"));
+        assertEquals(20, derived.getInt("balance", 0));
+        assertFalse(derived.has("vip"));
+        assertTrue(snapshot.has("vip"));
+        assertEquals(12.5, snapshot.getDouble("balance", 0));
+    }
+
+    @Test
+    void toJsonReturnsIndependentCopy() {
+        JsonObject record = record();
+        UserSnapshot snapshot = new UserSnapshot(UUID.randomUUID(), "Notch", null, null, null, record);
+
+        JsonObject copy = snapshot.toJson();
+        assertEquals(record, copy);
+        copy.getAsJsonObject("stats").addProperty("kills", 100);
+        assertEquals(7, ((Number) snapshot.get(UserKey.of("stats.kills"))).intValue());
+    }
+}
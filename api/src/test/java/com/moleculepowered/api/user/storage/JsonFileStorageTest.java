@@ -0,0 +1,94 @@
+package com.moleculepowered.api.user.storage;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFileStorageTest
+{
+    @TempDir
+    File folder;
+
+    private static JsonObject record(String name) {
+        JsonObject record = new JsonObject();
+        record.addProperty("name", name);
+        return record;
+    }
+
+    @Test
+    void indexIsSharedUntilLastStorageCloses() {
+        JsonFileStorage first = new JsonFileStorage(folder), second = new JsonFileStorage(folder);
+        UUID uuid = UUID.randomUUID();
+        first.save(uuid, record("Notch"));
+
+        first.close();
+        assertTrue(second.exists(uuid));
+        second.save(UUID.randomUUID(), record("jeb_"));
+        second.close();
+
+        JsonFileStorage reopened = new JsonFileStorage(folder);
+        assertTrue(reopened.exists(uuid));
+        assertEquals(2, reopened.getUniqueIds().size());
+        assertEquals("Notch", reopened.load(uuid).get("name").getAsString());
+        reopened.close();
+    }
+
+    @Test
+    void closingTwiceReleasesTheIndexOnce() {
+        JsonFileStorage first = new JsonFileStorage(folder), second = new JsonFileStorage(folder);
+        first.close();
+        first.close();
+
+        UUID uuid = UUID.randomUUID();
+        second.save(uuid, record("Dinnerbone"));
+        assertTrue(second.exists(uuid));
+        second.close();
+    }
+
+    @Test
+    void findsRecordsWrittenWhileClosed() {
+        JsonFileStorage storage = new JsonFileStorage(folder);
+        storage.close();
+
+        // A RECORD ADDED BY HAND IS FOUND ON AN INDEX MISS
+        UUID uuid = UUID.randomUUID();
+        JsonFileStorage writer = new JsonFileStorage(folder);
+        writer.save(uuid, record("Grumm"));
+        writer.close();
+
+        JsonFileStorage reopened = new JsonFileStorage(folder);
+        assertTrue(reopened.exists(uuid));
+        assertTrue(reopened.delete(uuid));
+        assertFalse(reopened.exists(uuid));
+        reopened.close();
+    }
+
+    @Test
+    void migrationRecoversFilesNotNamedAfterUuid() throws Exception {
+        UUID uuid = UUID.randomUUID(), flat = UUID.randomUUID();
+        Files.write(new File(folder, "null.json").toPath(), ("{\"uuid\": \"" + uuid + "\", \"name\": \"Notch\"}").getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(folder, "unknown.json").toPath(), "{\"name\": \"jeb_\"}".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(folder, flat + ".json").toPath(), "{\"name\": \"Grumm\"}".getBytes(StandardCharsets.UTF_8));
+
+        JsonFileStorage storage = new JsonFileStorage(folder);
+        Collection<File> skipped = storage.prepare().get(5, TimeUnit.SECONDS);
+
+        assertTrue(storage.isMigrated());
+        assertSame(storage.prepare(), storage.prepare());
+        assertEquals("Notch", storage.load(uuid).get("name").getAsString());
+        assertEquals("Grumm", storage.load(flat).get("name").getAsString());
+        assertFalse(new File(folder, "null.json").exists());
+        assertEquals(1, skipped.size());
+        assertEquals("unknown.json", skipped.iterator().next().getName());
+        storage.close();
+    }
+}
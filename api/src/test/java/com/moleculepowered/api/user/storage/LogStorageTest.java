@@ -0,0 +1,191 @@
+package com.moleculepowered.api.user.storage;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStorageTest
+{
+    @TempDir
+    File folder;
+
+    private LogStorage open(long segmentSize) {
+        return new LogStorage(folder, segmentSize, Duration.ofHours(1));
+    }
+
+    private static JsonObject record(int kills) {
+        JsonObject record = new JsonObject();
+        record.addProperty("name", "user");
+        record.addProperty("kills", kills);
+        return record;
+    }
+
+    private File[] segmentFiles() {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".log"));
+        Arrays.sort(files);
+        return files;
+    }
+
+    @Test
+    void storesLatestRecord() {
+        LogStorage storage = open(1024 * 1024);
+        UUID uuid = UUID.randomUUID();
+        storage.save(uuid, record(1));
+        storage.save(uuid, record(2));
+
+        assertTrue(storage.exists(uuid));
+        assertEquals(2, storage.load(uuid).get("kills").getAsInt());
+        assertNull(storage.load(UUID.randomUUID()));
+
+        assertTrue(storage.delete(uuid));
+        assertFalse(storage.delete(uuid));
+        assertFalse(storage.exists(uuid));
+        assertNull(storage.load(uuid));
+        storage.close();
+    }
+
+    @Test
+    void reopeningReplaysEverySegment() {
+        LogStorage storage = open(512);
+        Map<UUID, Integer> expected = new HashMap<>();
+        List<UUID> deleted = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            UUID uuid = UUID.randomUUID();
+            storage.save(uuid, record(i));
+            if (i % 5 == 0) {
+                storage.delete(uuid);
+                deleted.add(uuid);
+            } else expected.put(uuid, i);
+        }
+        storage.close();
+        assertTrue(segmentFiles().length > 1, "records should span several segments");
+
+        LogStorage reopened = open(512);
+        assertEquals(expected.keySet(), new HashSet<>(reopened.getUniqueIds()));
+        expected.forEach((uuid, kills) -> assertEquals((int) kills, reopened.load(uuid).get("kills").getAsInt()));
+        deleted.forEach(uuid -> assertFalse(reopened.exists(uuid)));
+
+        Map<UUID, Integer> iterated = new HashMap<>();
+        reopened.forEach((uuid, record) -> iterated.put(uuid, record.get("kills").getAsInt()));
+        assertEquals(expected, iterated);
+        reopened.close();
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveRecords() {
+        LogStorage storage = open(512);
+        UUID kept = UUID.randomUUID(), removed = UUID.randomUUID();
+        for (int i = 0; i < 100; i++) {
+            storage.save(kept, record(i));
+            storage.save(removed, record(i));
+        }
+        storage.delete(removed);
+        int before = segmentFiles().length;
+
+        storage.compact();
+        assertTrue(segmentFiles().length < before);
+        assertEquals(99, storage.load(kept).get("kills").getAsInt());
+        assertFalse(storage.exists(removed));
+
+        // WRITES AFTER COMPACTION ARE STILL REPLAYED AFTER THE COMPACTED SEGMENT
+        storage.save(kept, record(500));
+        storage.close();
+
+        LogStorage reopened = open(512);
+        assertEquals(500, reopened.load(kept).get("kills").getAsInt());
+        assertFalse(reopened.exists(removed));
+        reopened.close();
+    }
+
+    @Test
+    void compactionSkipsMostlyLiveSegments() {
+        LogStorage storage = open(512);
+        for (int i = 0; i < 50; i++) storage.save(UUID.randomUUID(), record(i));
+        int before = segmentFiles().length;
+
+        storage.compact();
+        assertEquals(before, segmentFiles().length);
+        storage.close();
+    }
+
+    @Test
+    void incompleteRecordIsDiscardedOnOpen() throws Exception {
+        LogStorage storage = open(1024 * 1024);
+        UUID uuid = UUID.randomUUID();
+        storage.save(uuid, record(1));
+        storage.save(uuid, record(2));
+        storage.close();
+
+        // CUT THE LAST RECORD IN HALF, AS A CRASH DURING THE WRITE WOULD
+        File segment = segmentFiles()[0];
+        try (RandomAccessFile raw = new RandomAccessFile(segment, "rw")) {
+            raw.setLength(raw.length() - 10);
+        }
+        long truncated = segment.length();
+
+        LogStorage reopened = open(1024 * 1024);
+        assertEquals(1, reopened.load(uuid).get("kills").getAsInt());
+        assertTrue(segment.length() < truncated, "the partial record should be truncated");
+
+        reopened.save(uuid, record(3));
+        reopened.close();
+        LogStorage again = open(1024 * 1024);
+        assertEquals(3, again.load(uuid).get("kills").getAsInt());
+        again.close();
+    }
+
+    @Test
+    void corruptRecordEndsReplay() throws Exception {
+        LogStorage storage = open(1024 * 1024);
+        UUID first = UUID.randomUUID(), second = UUID.randomUUID();
+        storage.save(first, record(1));
+        long end = segmentFiles()[0].length();
+        storage.save(second, record(2));
+        storage.close();
+
+        // FLIP A BYTE INSIDE THE PAYLOAD OF THE SECOND RECORD, BREAKING ITS CHECKSUM
+        try (RandomAccessFile raw = new RandomAccessFile(segmentFiles()[0], "rw")) {
+            raw.seek(end + 30);
+            int value = raw.read();
+            raw.seek(end + 30);
+            raw.write(value ^ 0xFF);
+        }
+
+        LogStorage reopened = open(1024 * 1024);
+        assertTrue(reopened.exists(first));
+        assertFalse(reopened.exists(second));
+        reopened.close();
+    }
+
+    @Test
+    void unfinishedCompactionIsDiscarded() throws Exception {
+        LogStorage storage = open(1024 * 1024);
+        UUID uuid = UUID.randomUUID();
+        storage.save(uuid, record(1));
+        storage.close();
+
+        File leftover = new File(folder, "segment-00000001.log.compact");
+        try (FileOutputStream output = new FileOutputStream(leftover)) {
+            output.write(new byte[]{1, 2, 3});
+        }
+
+        LogStorage reopened = open(1024 * 1024);
+        assertFalse(leftover.exists());
+        assertEquals(1, reopened.load(uuid).get("kills").getAsInt());
+        reopened.close();
+    }
+}
@@ -0,0 +1,146 @@
+package com.moleculepowered.api.user.storage;
+
+import com.moleculepowered.api.exception.user.UserStorageException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserIndexTest
+{
+    @TempDir
+    File folder;
+
+    @Test
+    void storesLocationAndTimestamp() {
+        UserIndex index = new UserIndex(new File(folder, "users.idx"));
+        UUID uuid = UUID.randomUUID();
+        index.put(uuid, 128, 1000);
+
+        assertTrue(index.contains(uuid));
+        assertEquals(128, index.getLocation(uuid));
+        assertEquals(1000, index.getTimestamp(uuid));
+        assertEquals(-1, index.getLocation(UUID.randomUUID()));
+
+        index.put(uuid, 256, 2000);
+        assertEquals(256, index.getLocation(uuid));
+        assertEquals(1, index.size());
+        index.close();
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        UserIndex index = new UserIndex(new File(folder, "users.idx"));
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            UUID uuid = UUID.randomUUID();
+            ids.add(uuid);
+            index.put(uuid, i, i);
+        }
+
+        assertEquals(5000, index.size());
+        for (int i = 0; i < ids.size(); i++) assertEquals(i, index.getLocation(ids.get(i)));
+        assertEquals(new HashSet<>(ids), new HashSet<>(index.getUniqueIds()));
+        index.close();
+    }
+
+    @Test
+    void removalsKeepProbeSequencesIntact() {
+        UserIndex index = new UserIndex(new File(folder, "users.idx"));
+        Map<UUID, Long> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            if (!ids.isEmpty() && random.nextInt(3) == 0) {
+                UUID removed = ids.remove(random.nextInt(ids.size()));
+                assertTrue(index.remove(removed));
+                expected.remove(removed);
+            } else {
+                UUID uuid = UUID.randomUUID();
+                ids.add(uuid);
+                index.put(uuid, i, i);
+                expected.put(uuid, (long) i);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        expected.forEach((uuid, location) -> assertEquals((long) location, index.getLocation(uuid)));
+        assertFalse(index.remove(UUID.randomUUID()));
+        index.close();
+    }
+
+    @Test
+    void reopensCleanlyAfterClose() {
+        File file = new File(folder, "users.idx");
+        UserIndex index = new UserIndex(file);
+        UUID uuid = UUID.randomUUID();
+        for (int i = 0; i < 2000; i++) index.put(UUID.randomUUID(), i, i);
+        index.put(uuid, 42, 7);
+        index.close();
+
+        UserIndex reopened = new UserIndex(file);
+        assertTrue(reopened.wasClean());
+        assertEquals(2001, reopened.size());
+        assertEquals(42, reopened.getLocation(uuid));
+        assertEquals(7, reopened.getTimestamp(uuid));
+        reopened.close();
+    }
+
+    @Test
+    void startsEmptyWhenNotSyncedCleanly() throws Exception {
+        File file = new File(folder, "users.idx");
+        UserIndex index = new UserIndex(file);
+        index.put(UUID.randomUUID(), 1, 1);
+        index.close();
+
+        // CLEAR THE CLEAN FLAG, AS A CRASH BEFORE THE NEXT SYNC WOULD
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(16);
+            raw.writeByte(0);
+        }
+
+        UserIndex reopened = new UserIndex(file);
+        assertFalse(reopened.wasClean());
+        assertEquals(0, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    void rejectsSecondOpenWhileLocked() {
+        File file = new File(folder, "users.idx");
+        UserIndex index = new UserIndex(file);
+
+        assertThrows(UserStorageException.class, () -> new UserIndex(file));
+        index.close();
+        new UserIndex(file).close();
+    }
+
+    @Test
+    void rejectsChangesOnceClosed() {
+        UserIndex index = new UserIndex(new File(folder, "users.idx"));
+        index.close();
+        index.close();
+
+        assertTrue(index.isClosed());
+        assertThrows(IllegalStateException.class, () -> index.put(UUID.randomUUID(), 1, 1));
+        assertThrows(IllegalStateException.class, index::sync);
+    }
+
+    @Test
+    void rejectsNilUuid() {
+        UserIndex index = new UserIndex(new File(folder, "users.idx"));
+        assertThrows(IllegalArgumentException.class, () -> index.put(new UUID(0, 0), 1, 1));
+        index.close();
+    }
+}
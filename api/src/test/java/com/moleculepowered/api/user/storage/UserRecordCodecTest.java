@@ -0,0 +1,161 @@
+package com.moleculepowered.api.user.storage;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserRecordCodecTest
+{
+    private static JsonObject sample() {
+        JsonObject stats = new JsonObject();
+        stats.addProperty("kills", 42);
+        stats.addProperty("ratio", 1.75);
+        stats.addProperty("huge", Long.MAX_VALUE);
+
+        JsonArray homes = new JsonArray();
+        homes.add("spawn");
+        homes.add(JsonNull.INSTANCE);
+        homes.add(-3);
+
+        JsonObject record = new JsonObject();
+        record.addProperty("name", "Notch");
+        record.addProperty("vip", true);
+        record.addProperty("muted", false);
+        record.add("nickname", JsonNull.INSTANCE);
+        record.add("stats", stats);
+        record.add("homes", homes);
+        return record;
+    }
+
+    @Test
+    void binaryRoundTripPreservesRecord() {
+        JsonObject record = sample();
+        byte[] encoded = UserRecordCodec.encode(record);
+
+        assertTrue(UserRecordCodec.isBinary(encoded));
+        assertEquals(record, UserRecordCodec.decode(encoded));
+    }
+
+    @Test
+    void binaryKeepsNumberTypes() {
+        JsonObject decoded = UserRecordCodec.decode(UserRecordCodec.encode(sample()));
+        JsonObject stats = decoded.getAsJsonObject("stats");
+
+        assertEquals(42, stats.get("kills").getAsInt());
+        assertEquals(1.75, stats.get("ratio").getAsDouble());
+        assertEquals(Long.MAX_VALUE, stats.get("huge").getAsLong());
+    }
+
+    @Test
+    void binaryKeepsExactTextOfParsedNumbers() {
+        JsonObject record = JsonParser.parseString("{\"big\": 123456789012345678901234567890, \"exact\": 0.1000}").getAsJsonObject();
+        JsonObject decoded = UserRecordCodec.decode(UserRecordCodec.encode(record));
+
+        assertEquals("123456789012345678901234567890", decoded.get("big").getAsString());
+        assertEquals("0.1000", decoded.get("exact").getAsString());
+    }
+
+    @Test
+    void binaryStoresRepeatedKeysOnce() {
+        JsonArray entries = new JsonArray();
+        for (int i = 0; i < 100; i++) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("a-rather-long-repeated-key", i);
+            entries.add(entry);
+        }
+        JsonObject record = new JsonObject();
+        record.add("entries", entries);
+
+        byte[] binary = UserRecordCodec.encode(record);
+        assertTrue(binary.length < UserRecordCodec.encodeJson(record, false).length / 4);
+        assertEquals(record, UserRecordCodec.decode(binary));
+    }
+
+    @Test
+    void decodeAcceptsJsonText() {
+        byte[] text = "{\"name\": \"Notch\", \"kills\": 3}".getBytes(StandardCharsets.UTF_8);
+
+        assertFalse(UserRecordCodec.isBinary(text));
+        JsonObject decoded = UserRecordCodec.decode(text);
+        assertEquals("Notch", decoded.get("name").getAsString());
+        assertEquals(3, decoded.get("kills").getAsInt());
+    }
+
+    @Test
+    void decodeRejectsNewerVersion() {
+        byte[] encoded = UserRecordCodec.encode(sample());
+        encoded[3] = (byte) (UserRecordCodec.VERSION + 1);
+
+        assertThrows(JsonParseException.class, () -> UserRecordCodec.decode(encoded));
+    }
+
+    @Test
+    void decodeRejectsTruncatedRecord() {
+        byte[] encoded = UserRecordCodec.encode(sample());
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length / 2);
+
+        assertThrows(JsonParseException.class, () -> UserRecordCodec.decode(truncated));
+    }
+
+    @Test
+    void decodeRejectsCorruptSize() {
+        byte[] encoded = UserRecordCodec.encode(new JsonObject());
+        byte[] corrupt = Arrays.copyOf(encoded, encoded.length + 5);
+        // REPLACE THE DICTIONARY SIZE WITH A HUGE VARIABLE-LENGTH INTEGER
+        corrupt[4] = (byte) 0xFF;
+        corrupt[5] = (byte) 0xFF;
+        corrupt[6] = (byte) 0xFF;
+        corrupt[7] = (byte) 0xFF;
+        corrupt[8] = (byte) 0x07;
+
+        assertThrows(JsonParseException.class, () -> UserRecordCodec.decode(corrupt));
+    }
+
+    @Test
+    void jsonRoundTripKeepsNullValues() throws IOException {
+        JsonObject record = sample();
+        StringWriter writer = new StringWriter();
+        UserRecordCodec.writeJson(record, writer, true);
+
+        assertTrue(writer.toString().contains("\"nickname\": null"));
+        assertEquals(record, UserRecordCodec.readJson(new StringReader(writer.toString())));
+        assertEquals(record, UserRecordCodec.decode(UserRecordCodec.encodeJson(record, false)));
+        assertEquals(record, JsonParser.parseString(UserRecordCodec.toJson(record)));
+    }
+
+    @Test
+    void jsonEncodingReusesNoStateBetweenRecords() {
+        JsonObject large = sample(), small = new JsonObject();
+        small.addProperty("name", "jeb_");
+
+        UserRecordCodec.encodeJson(large, true);
+        assertEquals("{\"name\":\"jeb_\"}", new String(UserRecordCodec.encodeJson(small, false), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readJsonParsesNumbersWithoutLosingPrecision() throws IOException {
+        JsonObject record = UserRecordCodec.readJson(new StringReader("{\"small\": -7, \"big\": 123456789012345678901234567890, \"exact\": 0.1000}"));
+
+        assertEquals(-7L, record.get("small").getAsNumber());
+        assertEquals("123456789012345678901234567890", record.get("big").getAsString());
+        assertEquals("0.1000", record.get("exact").getAsString());
+        assertThrows(JsonParseException.class, () -> UserRecordCodec.readJson(new StringReader("{\"bad\": 1.2.3}")));
+    }
+
+    @Test
+    void readJsonRejectsNonObjects() {
+        assertThrows(JsonParseException.class, () -> UserRecordCodec.readJson(new StringReader("[1, 2]")));
+        assertThrows(JsonParseException.class, () -> UserRecordCodec.readJson(new StringReader("{\"a\": 1} {\"b\": 2}")));
+    }
+}
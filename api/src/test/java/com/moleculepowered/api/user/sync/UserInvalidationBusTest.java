@@ -0,0 +1,128 @@
+package com.moleculepowered.api.user.sync;
+
+import com.google.gson.JsonObject;
+import com.moleculepowered.api.user.MemoryStorage;
+import com.moleculepowered.api.user.MemoryUser;
+import com.moleculepowered.api.user.UserManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserInvalidationBusTest
+{
+    private final String channel = "test-" + UUID.randomUUID();
+    private final MemoryStorage storage = new MemoryStorage();
+    private final List<byte[]> messages = Collections.synchronizedList(new ArrayList<>());
+    private UserManager first, second;
+    private UserInvalidationBus firstBus, secondBus;
+    private LocalTransport observer, injector;
+
+    @BeforeEach
+    void setUp() {
+        first = new UserManager(storage) {};
+        second = new UserManager(storage) {};
+        firstBus = new UserInvalidationBus(first, new LocalTransport(channel));
+        secondBus = new UserInvalidationBus(second, new LocalTransport(channel));
+        firstBus.start();
+        secondBus.start();
+
+        // AN EXTRA PEER RECORDING EVERY MESSAGE, AND ONE REPLAYING THEM
+        observer = new LocalTransport(channel);
+        observer.setReceiver(messages::add);
+        injector = new LocalTransport(channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        firstBus.close();
+        secondBus.close();
+        observer.close();
+        injector.close();
+    }
+
+    private static JsonObject record(int kills) {
+        JsonObject record = new JsonObject();
+        record.addProperty("kills", kills);
+        return record;
+    }
+
+    @Test
+    void writeReloadsResidentUserOnPeer() {
+        UUID uuid = UUID.randomUUID();
+        MemoryUser user = new MemoryUser(uuid, "user", second.getStorage());
+        second.addUser(user);
+
+        first.getStorage().save(uuid, record(5));
+        assertEquals(1, user.getReloads());
+        assertEquals(5, user.getInt("kills", 0));
+        assertEquals(firstBus.getVersion(uuid), secondBus.getVersion(uuid));
+    }
+
+    @Test
+    void deletionDropsResidentUserOnPeer() {
+        UUID uuid = UUID.randomUUID();
+        storage.save(uuid, record(1));
+        second.addUser(new MemoryUser(uuid, "user", second.getStorage()));
+
+        first.getStorage().delete(uuid);
+        assertFalse(second.isResident(uuid));
+    }
+
+    @Test
+    void staleAndDuplicateVersionsAreIgnored() {
+        UUID uuid = UUID.randomUUID();
+        MemoryUser user = new MemoryUser(uuid, "user", storage);
+        second.addUser(user);
+
+        // RECORD TWO VERSIONS WHILE THE SECOND NODE IS NOT LISTENING
+        secondBus.close();
+        firstBus.publish(uuid, false);
+        firstBus.publish(uuid, false);
+        assertEquals(2, messages.size());
+
+        // DELIVER THEM OUT OF ORDER, THEN AGAIN
+        UserInvalidationBus restarted = new UserInvalidationBus(second, new LocalTransport(channel));
+        restarted.start();
+        try {
+            injector.publish(messages.get(1));
+            injector.publish(messages.get(0));
+            injector.publish(messages.get(1));
+            assertEquals(1, user.getReloads(), "only versions newer than the last one seen are applied");
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void batchedWritesArePublishedAfterCommit() {
+        UUID uuid = UUID.randomUUID();
+        first.getStorage().batch(() -> {
+            first.getStorage().save(uuid, record(1));
+            first.getStorage().save(uuid, record(2));
+            assertTrue(messages.isEmpty(), "nothing is published before the batch commits");
+        });
+        assertEquals(1, messages.size(), "each user is published once per batch");
+
+        messages.clear();
+        assertThrows(IllegalStateException.class, () -> first.getStorage().batch(() -> {
+            first.getStorage().save(uuid, record(3));
+            throw new IllegalStateException("rolled back");
+        }));
+        assertTrue(messages.isEmpty(), "a failed batch is never published");
+    }
+
+    @Test
+    void closingRestoresStorage() {
+        firstBus.close();
+        assertSame(storage, first.getStorage());
+        first.getStorage().save(UUID.randomUUID(), record(1));
+        assertTrue(messages.isEmpty());
+    }
+}
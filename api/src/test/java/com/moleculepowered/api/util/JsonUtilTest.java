@@ -0,0 +1,86 @@
+package com.moleculepowered.api.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonUtilTest
+{
+    @Test
+    void copyIsIndependentOfTheSource() {
+        JsonObject stats = new JsonObject();
+        stats.addProperty("kills", 1);
+        JsonArray homes = new JsonArray();
+        homes.add(new JsonPrimitive("spawn"));
+
+        JsonObject record = new JsonObject();
+        record.addProperty("name", "Notch");
+        record.add("stats", stats);
+        record.add("homes", homes);
+        JsonObject copy = JsonUtil.copy(record);
+
+        assertEquals(record, copy);
+        assertNotSame(stats, copy.get("stats"));
+        assertNotSame(homes, copy.get("homes"));
+
+        stats.addProperty("kills", 2);
+        homes.add(new JsonPrimitive("base"));
+        assertEquals(1, copy.getAsJsonObject("stats").get("kills").getAsInt());
+        assertEquals(1, copy.getAsJsonArray("homes").size());
+    }
+
+    @Test
+    void restoreKeepsNestedReferences() {
+        JsonObject stats = new JsonObject();
+        stats.addProperty("kills", 1);
+        JsonArray homes = new JsonArray();
+        homes.add("spawn");
+
+        JsonObject record = new JsonObject();
+        record.addProperty("name", "Notch");
+        record.add("stats", stats);
+        record.add("homes", homes);
+        JsonObject previous = JsonUtil.copy(record);
+
+        // APPLY CHANGES, THEN ROLL THEM BACK
+        stats.addProperty("kills", 2);
+        stats.addProperty("deaths", 1);
+        homes.add("base");
+        record.addProperty("rank", "admin");
+        record.remove("name");
+        JsonUtil.restore(record, previous);
+
+        assertEquals(previous, record);
+        assertSame(stats, record.get("stats"), "nested objects are restored in place");
+        assertSame(homes, record.get("homes"), "nested arrays are restored in place");
+        assertEquals(1, stats.get("kills").getAsInt());
+        assertFalse(stats.has("deaths"));
+        assertEquals(1, homes.size());
+    }
+
+    @Test
+    void restoreReplacesValuesOfDifferentType() {
+        JsonObject record = new JsonObject();
+        record.add("value", new JsonObject());
+        JsonObject previous = new JsonObject();
+        previous.addProperty("value", 5);
+
+        JsonUtil.restore(record, previous);
+        assertEquals(5, record.get("value").getAsInt());
+    }
+
+    @Test
+    void toElementConvertsSupportedTypes() {
+        assertEquals(new JsonPrimitive("text"), JsonUtil.toElement("text"));
+        assertEquals(new JsonPrimitive(3), JsonUtil.toElement(3));
+        assertEquals(new JsonPrimitive(true), JsonUtil.toElement(true));
+        assertEquals(new JsonPrimitive('c'), JsonUtil.toElement('c'));
+
+        JsonArray array = new JsonArray();
+        assertSame(array, JsonUtil.toElement(array));
+        assertThrows(IllegalArgumentException.class, () -> JsonUtil.toElement(new Object()));
+    }
+}
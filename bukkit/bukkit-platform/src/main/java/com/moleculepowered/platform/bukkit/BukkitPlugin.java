@@ -7,7 +7,12 @@ import com.moleculepowered.api.util.ComparableVersion;
 import com.moleculepowered.platform.bukkit.updater.BukkitUpdater;
 import com.moleculepowered.platform.bukkit.user.BukkitUserManager;
 import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.RegisteredListener;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
@@ -31,6 +36,7 @@ public abstract class BukkitPlugin extends JavaPlugin implements MoleculePlugin
     private final UserManager userManager;
     private final BukkitConsole console;
     private final BukkitUpdater updater;
+    private boolean usersEnabled;
 
     /*
     CONSTRUCTOR
@@ -47,11 +53,73 @@ public abstract class BukkitPlugin extends JavaPlugin implements MoleculePlugin
         // INITIALIZE CONSOLE
         console = new BukkitConsole(this);
 
-        // INITIALIZE USER-MANAGER
+        // INITIALIZE USER-MANAGER, USERS ARE LOADED ONCE THE PLUGIN IS ENABLED
         userManager = new BukkitUserManager(this);
+
+        // FOLLOW THIS PLUGIN'S ENABLE AND DISABLE EVENTS, SO THE USER LIFECYCLE RUNS EVEN IF
+        // onEnable OR onDisable ARE OVERRIDDEN WITHOUT CALLING SUPER. THE PLUGIN IS NOT ENABLED
+        // YET, SO THE LISTENERS ARE REGISTERED ON THE HANDLER LISTS DIRECTLY
+        Listener lifecycle = new Listener() {
+        };
+        EventExecutor executor = (listener, event) -> {
+            if (event instanceof PluginEnableEvent && ((PluginEnableEvent) event).getPlugin() == this) enableUsers();
+            else if (event instanceof PluginDisableEvent && ((PluginDisableEvent) event).getPlugin() == this) flushUsers();
+        };
+        PluginEnableEvent.getHandlerList().register(new RegisteredListener(lifecycle, executor, EventPriority.LOWEST, this, false));
+        PluginDisableEvent.getHandlerList().register(new RegisteredListener(lifecycle, executor, EventPriority.MONITOR, this, false));
+    }
+
+    /**
+     * Called when this plugin is enabled. By default, this method loads the users handled by the
+     * {@link UserManager} and registers its listeners, so the user manager may be configured
+     * (for example, with lazy loading) from the plugin's constructor or {@link #onLoad()}.
+     *
+     * <p>Plugins overriding this method should call {@code super.onEnable()} before their own
+     * startup logic, so users are loaded first. Otherwise, users are loaded as soon as this
+     * method returns.</p>
+     */
+    @Override
+    public void onEnable() {
+        enableUsers();
+    }
+
+    /**
+     * Called when this plugin is disabled. By default, this method writes any pending user changes
+     * to storage and closes it.
+     *
+     * <p>Plugins overriding this method should call {@code super.onDisable()} after their own
+     * shutdown logic, ideally from a {@code finally} block. Pending changes are written even if they
+     * do not, as they are flushed when the server starts disabling this plugin, before this method
+     * is called, and users write any later change immediately. Only closing the storage and saving
+     * the known users filter are then skipped.</p>
+     */
+    @Override
+    public void onDisable() {
+        if (!usersEnabled) return;
+        usersEnabled = false;
+        userManager.onDisable();
+    }
+
+    /**
+     * Enables the user manager, unless it has already been enabled.
+     */
+    private void enableUsers() {
+        if (usersEnabled || !isEnabled()) return;
+        usersEnabled = true;
         userManager.onEnable();
     }
 
+    /**
+     * Writes every pending user change and stops the background tasks before this plugin is disabled,
+     * switching users to immediate writes, so nothing is lost if {@link #onDisable()} is overridden
+     * without calling super.
+     */
+    private void flushUsers() {
+        if (!usersEnabled) return;
+        userManager.setFlushInterval(0).setIdleTimeout(0);
+        userManager.flushAll();
+    }
+
     /**
      * Registers all the events in the given listener class.
      *
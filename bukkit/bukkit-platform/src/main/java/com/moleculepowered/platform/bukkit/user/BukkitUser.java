@@ -1,12 +1,12 @@
 package com.moleculepowered.platform.bukkit.user;
 
 import com.moleculepowered.api.user.User;
+import com.moleculepowered.api.user.storage.UserStorage;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -27,11 +27,38 @@ public final class BukkitUser extends BukkitUserData implements User
      *
      * @param plugin The plugin handling this user
      * @param player The provided player object
+     * @deprecated use {@link #BukkitUser(Plugin, OfflinePlayer, UserStorage)} with the storage of
+     * the user manager instead
      */
+    @Deprecated
     public BukkitUser(@NotNull Plugin plugin, @NotNull OfflinePlayer player) {
         super(plugin, player);
     }
 
+    /**
+     * Creates a new Bukkit user based on a player object, persisting its data using the provided storage.
+     *
+     * @param plugin  The plugin handling this user
+     * @param player  The provided player object
+     * @param storage The storage used to persist this user
+     */
+    public BukkitUser(@NotNull Plugin plugin, @NotNull OfflinePlayer player, @NotNull UserStorage storage) {
+        super(plugin, player, storage);
+    }
+
+    /**
+     * Creates a new Bukkit user from an identity read beforehand, persisting its data using the
+     * provided storage. The Bukkit API is not called, so this constructor is safe off the main thread.
+     *
+     * @param plugin  The plugin handling this user
+     * @param uuid    The UUID of the user
+     * @param name    The name of the user, or null if unknown
+     * @param storage The storage used to persist this user
+     */
+    public BukkitUser(@NotNull Plugin plugin, @NotNull UUID uuid, @Nullable String name, @NotNull UserStorage storage) {
+        super(plugin, uuid, name, storage);
+    }
+
     /*
     GETTER METHODS
      */
@@ -43,17 +70,17 @@ public final class BukkitUser extends BukkitUserData implements User
      */
     @Override
     public @NotNull UUID getUniqueId() {
-        return UUID.fromString(Objects.requireNonNull(getData("uuid")));
+        return uuid;
     }
 
     /**
      * Retrieves the name assigned to this user object.
      *
-     * @return The name of the user
+     * @return The name of the user, or null if the server never cached it
      */
     @Override
-    public @NotNull String getName() {
-        return Objects.requireNonNull(getData("name"));
+    public @Nullable String getName() {
+        return name;
     }
 
     /**
@@ -65,7 +92,7 @@ public final class BukkitUser extends BukkitUserData implements User
      */
     @Override
     public @Nullable String getDisplayName() {
-        return getData("display-name");
+        return displayName;
     }
 
     /**
@@ -77,7 +104,7 @@ public final class BukkitUser extends BukkitUserData implements User
      */
     @Override
     public @Nullable String getCustomName() {
-        return getData("custom-name");
+        return customName;
     }
 
     /**
@@ -87,7 +114,7 @@ public final class BukkitUser extends BukkitUserData implements User
      */
     @Override
     public @Nullable String getLocale() {
-        return getData("locale");
+        return locale;
     }
 
     /*
@@ -1,45 +1,66 @@
 package com.moleculepowered.platform.bukkit.user;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.moleculepowered.api.MoleculePlugin;
 import com.moleculepowered.api.exception.user.UserDeleteException;
+import com.moleculepowered.api.exception.user.UserStorageException;
+import com.moleculepowered.api.user.UserChange;
+import com.moleculepowered.api.user.UserChangeFeed;
 import com.moleculepowered.api.user.UserData;
+import com.moleculepowered.api.user.UserKey;
+import com.moleculepowered.api.user.UserManager;
+import com.moleculepowered.api.user.UserSnapshot;
+import com.moleculepowered.api.user.UserWrite;
+import com.moleculepowered.api.user.storage.JsonFileStorage;
+import com.moleculepowered.api.user.storage.UserStorage;
+import com.moleculepowered.api.util.JsonUtil;
 import com.moleculepowered.platform.bukkit.adapter.PlayerAdapter;
 import com.moleculepowered.platform.bukkit.event.user.UserCreatedEvent;
 import com.moleculepowered.platform.bukkit.event.user.UserDeletedEvent;
 import com.moleculepowered.platform.bukkit.model.BukkitNMSBridge;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
- * Creates a user data class for the bukkit platform, it utilizes the {@link YamlConfiguration} class
- * as it's storage system. It applies custom uses for superseded methods from the parent class.
+ * Creates a user data class for the bukkit platform, it keeps the user's record in memory as a
+ * {@link JsonObject} and persists it using the provided {@link UserStorage}. It applies custom uses
+ * for superseded methods from the parent class.
  *
  * @author OMGitzFROST
  */
 public class BukkitUserData implements UserData
 {
     // DATA OBJECTS
+    private static final String[] IDENTITY_KEYS = {"name", "display-name", "custom-name", "locale"};
     private final Plugin plugin;
-    private final Gson gson;
-    private final File userFile;
+    private final UserStorage storage;
     private JsonObject config;
+    private volatile boolean dirty, writeBehind;
+    private volatile Consumer<UserChange> changeListener;
+    private volatile UserSnapshot snapshot;
+    private boolean createdUnreported;
+    private List<UserChange> edits;
+    private UserWrite pendingWrite;
+    private long version;
 
-    // USER INFORMATION
-    private String name, displayName, customName, locale;
-    private UUID uuid;
+    // USER INFORMATION, KEPT IN SYNC WITH THE RECORD SO IDENTITY GETTERS NEVER TOUCH THE JSON
+    protected final UUID uuid;
+    protected volatile String name, displayName, customName, locale;
 
     /*
     CONSTRUCTORS
@@ -52,14 +73,31 @@ public class BukkitUserData implements UserData
      * information from the originating player, this information will be stored
      * into their respective user file to be later retrieved other plugin's</p>
      *
+     * <p>The record is persisted using the storage of the plugin's {@link UserManager}. Plugins that
+     * do not provide one get a new storage for every user, whose index is never released, so this
+     * constructor should be avoided in favour of passing the manager's storage.</p>
+     *
      * @param plugin Parent plugin
      * @param player Originating player
+     * @deprecated use {@link #BukkitUserData(Plugin, OfflinePlayer, UserStorage)} with the storage
+     * of the {@link UserManager} instead
      */
+    @Deprecated
     public BukkitUserData(@NotNull Plugin plugin, @NotNull OfflinePlayer player) {
+        this(plugin, player, defaultStorage(plugin));
+    }
+
+    /**
+     * Creates a user data class that persists its record using the provided storage.
+     *
+     * @param plugin  Parent plugin
+     * @param player  Originating player
+     * @param storage Storage used to persist the user's record
+     */
+    public BukkitUserData(@NotNull Plugin plugin, @NotNull OfflinePlayer player, @NotNull UserStorage storage) {
 
         this.plugin = plugin;
-        this.gson = new GsonBuilder().setPrettyPrinting().serializeNulls().create();
-        this.userFile = new File(plugin.getDataFolder() + "/user-data", uuid + ".json");
+        this.storage = storage;
 
         // INITIALIZE STATIC USER INFORMATION
         this.uuid = player.getUniqueId();
@@ -76,55 +114,138 @@ public class BukkitUserData implements UserData
     }
 
     /**
-     * <p>This method attempts to create a new user data file.</p>
+     * Creates a user data class from an identity read beforehand, persisting its record using the
+     * provided storage. The Bukkit API is not called, so it may be used off the main thread, for
+     * example by the parallel bulk loader or during the asynchronous pre-login.
      *
-     * <p>By default, this method will not create a user file if one already exists in the
-     * {@link #getDataFolder()}, otherwise this method will create one as usual.
+     * @param plugin  Parent plugin
+     * @param uuid    The user's UUID
+     * @param name    The user's name, or null if unknown
+     * @param storage Storage used to persist the user's record
+     */
+    public BukkitUserData(@NotNull Plugin plugin, @NotNull UUID uuid, @Nullable String name, @NotNull UserStorage storage) {
+        this.plugin = plugin;
+        this.storage = storage;
+        this.uuid = uuid;
+        this.name = name;
+        create();
+    }
+
+    /**
+     * Returns the storage used by the plugin's {@link UserManager}, so users created without a
+     * storage share it. When the plugin does not provide a manager yet, a storage reading the
+     * plugin's "user-data" folder is created instead.
+     *
+     * @param plugin Parent plugin
+     * @return the storage to persist users with
+     */
+    private static @NotNull UserStorage defaultStorage(@NotNull Plugin plugin) {
+        if (plugin instanceof MoleculePlugin) {
+            UserManager manager = ((MoleculePlugin) plugin).getUserManager();
+            if (manager != null) return manager.getStorage();
+        }
+        return new JsonFileStorage(new File(plugin.getDataFolder(), "user-data"));
+    }
+
+    /**
+     * <p>This method attempts to create a new user record.</p>
+     *
+     * <p>By default, this method will not create a user record if one already exists in the
+     * {@link #getStorage()}, otherwise this method will create one as usual.
      */
     @Override
-    public void create() {
+    public synchronized void create() {
         try {
-            if (!getDataFolder().exists() && !getDataFolder().mkdirs())
-                throw new IllegalArgumentException("Unable to create user data folder");
+            config = storage.load(uuid);
+            dirty = false;
 
-            // ATTEMPT TO CREATE USER FILE IF ONE DOES NOT EXIST, OR IS NULL
-            if (!userFile.exists() || (config != null && config.isJsonNull())) {
-                storeDefaults();
+            // ATTEMPT TO CREATE USER RECORD IF ONE DOES NOT EXIST
+            if (config == null) {
+                config = new JsonObject();
+                mergeIdentity(false);
+                storage.save(uuid, config);
 
-                UserCreatedEvent event = new UserCreatedEvent();
-                plugin.getServer().getPluginManager().callEvent(event);
+                callEvent(new UserCreatedEvent());
+                createdUnreported = true;
+                publish(UserChange.created(uuid));
+                return;
             }
 
-            // LOAD USER SETTINGS ONE FILE IS CONFIRMED TO EXIST
-            config = gson.fromJson(new FileReader(userFile), JsonObject.class);
-        } catch (IOException ex) {
+            // THE STORED RECORD TAKES PRECEDENCE OVER THE PLAYER'S CURRENT INFORMATION
+            for (String key : IDENTITY_KEYS) syncIdentity(key);
+        } catch (UserStorageException ex) {
             ex.printStackTrace();
+        } finally {
+            publishSnapshot();
         }
     }
 
     /**
-     * Deletes a user's data file if one exists, otherwise this method will do nothing.
+     * Discards the record held in memory and reads it again from storage. Pending changes are
+     * discarded, and if the record no longer exists, the one held in memory is kept, so it is
+     * never recreated by this method.
      */
     @Override
-    public void delete() {
+    public synchronized void reload() {
+        try {
+            JsonObject loaded = storage.load(uuid);
+            if (loaded == null) return;
 
-        // ATTEMPT TO DELETE USER FILE, IF SUCCESSFULL CALL EVENT
-        if (userFile.delete()) {
-            UserDeletedEvent event = new UserDeletedEvent();
+            config = loaded;
+            dirty = false;
+            for (String key : IDENTITY_KEYS) syncIdentity(key);
+            publishSnapshot();
+        } catch (UserStorageException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Deletes a user's record if one exists, otherwise this method will do nothing. Pending changes
+     * are discarded, including a copy prepared for a batch that has not yet been written, so the
+     * record is never recreated by a write that started before the deletion.
+     */
+    @Override
+    public synchronized void delete() {
+
+        // DISCARD PENDING CHANGES SO THE FLUSHER DOES NOT RECREATE THE RECORD
+        if (pendingWrite != null) pendingWrite.discard();
+        awaitWrite();
+        version++;
+        dirty = false;
+
+        // ATTEMPT TO DELETE USER RECORD, IF SUCCESSFULL CALL EVENT
+        if (storage.delete(uuid)) {
+            callEvent(new UserDeletedEvent());
+            publish(UserChange.deleted(uuid));
+            return;
+        }
+        throw new UserDeleteException("An error has occurred when trying to delete {0}''s user data", name);
+    }
+
+    /**
+     * Calls the provided event. Since users may be loaded off the main thread, for example by the
+     * parallel bulk loader, events raised from another thread are handed to the main thread.
+     *
+     * @param event the event to call
+     */
+    private void callEvent(@NotNull Event event) {
+        if (event.isAsynchronous() || Bukkit.isPrimaryThread()) {
             plugin.getServer().getPluginManager().callEvent(event);
             return;
         }
-        throw new UserDeleteException("An error has occurred when trying to delete {0}'s users file", name);
+        plugin.getServer().getScheduler().runTask(plugin, () -> plugin.getServer().getPluginManager().callEvent(event));
     }
 
     /**
-     * Attempts to update a user's data file, usually this method adds new keys to the configuration
-     * and attempts to re-add removed comments if applicable.
+     * Updates a user's record with the player's current identity information. Only the identity
+     * keys whose value differs from the stored record are changed, every other key is preserved,
+     * and nothing is written when the record is already up to date.
      *
      * @param target Originating player
      */
     @Override
-    public <T> void update(T target) {
+    public synchronized <T> void update(T target) {
 
         if (!(target instanceof OfflinePlayer))
             throw new IllegalArgumentException("In-order to update this user-data, you must provide a valid OfflinePlayer object");
@@ -132,8 +253,10 @@ public class BukkitUserData implements UserData
         try {
             OfflinePlayer player = (OfflinePlayer) target;
 
+            if (!uuid.equals(player.getUniqueId()))
+                throw new IllegalArgumentException("In-order to update this user-data, you must provide the player it belongs to");
+
             // INITIALIZE STATIC USER INFORMATION
-            this.uuid = player.getUniqueId();
             this.name = player.getName();
 
             // IF PLAYER IS ONLINE, SET ONLINE SPECIFIC INFORMATION
@@ -144,32 +267,50 @@ public class BukkitUserData implements UserData
                 this.locale = adapter.getLocale();
             }
 
-            storeDefaults();
-        } catch (IOException ex) {
+            if (mergeIdentity(true)) {
+                if (edits == null) publishSnapshot();
+                changed();
+            }
+        } catch (UserStorageException ex) {
             ex.printStackTrace();
         }
     }
 
     /**
-     * Stores the default information gathered in the constructor into the user's data file.
-     * This method saves the user's data for future retrieval and usage.
+     * Copies the identity information gathered from the player into the user's record, changing
+     * only the keys whose value differs. Every other key of the record is left untouched.
+     *
+     * @param report whether each changed key should be reported to the change listener
+     * @return true if the record was modified
+     */
+    private boolean mergeIdentity(boolean report) {
+        if (config == null) config = new JsonObject();
+
+        boolean modified = mergeKey("uuid", uuid.toString(), report);
+        modified |= mergeKey("name", name, report);
+        modified |= mergeKey("display-name", displayName, report);
+        modified |= mergeKey("custom-name", customName, report);
+        modified |= mergeKey("locale", locale, report);
+        return modified;
+    }
+
+    /**
+     * Assigns a text value to the provided key of the record, unless it already holds that value.
+     * A null value is stored as a JSON null, so identity keys are always present.
      *
-     * @throws IOException if an I/O error occurs while storing the information into the data file.
-     *                     This can happen if the data file is inaccessible or the storage operation fails.
-     *                     The exception message provides more specific details about the error.
+     * @param key    the identity key
+     * @param value  the current value
+     * @param report whether the change should be reported to the change listener
+     * @return true if the key was changed
      */
-    private void storeDefaults() throws IOException {
-        JsonObject object = new JsonObject();
-        object.addProperty("uuid", uuid.toString());
-        object.addProperty("name", name);
-        object.addProperty("display-name", displayName);
-        object.addProperty("custom-name", customName);
-        object.addProperty("locale", locale);
+    private boolean mergeKey(@NotNull String key, @Nullable String value, boolean report) {
+        JsonElement previous = config.get(key);
+        JsonElement next = value != null ? new JsonPrimitive(value) : JsonNull.INSTANCE;
+        if (next.equals(previous)) return false;
 
-        // SAVE DATA TO USER FILE
-        FileWriter writer = new FileWriter(userFile);
-        gson.toJson(object, writer);
-        writer.close();
+        config.add(key, next);
+        if (report && isReporting()) publish(UserChange.updated(uuid, key, previous, next));
+        return true;
     }
 
     /**
@@ -179,26 +320,486 @@ public class BukkitUserData implements UserData
      * {@link String}, {@link Number}, {@link Boolean}, {@link Character}, or {@link JsonElement}.
      * Otherwise, this method will throw an {@link IllegalArgumentException}.</p>
      *
+     * <p>A null value removes the key. Earlier versions stored it as the text {@code "null"} instead,
+     * so callers that need the key to remain present should store a {@link JsonNull}.</p>
+     *
      * @param key   the target key for the data
-     * @param value the target value to be added or updated
+     * @param value the target value to be added or updated, or null to remove it
      * @throws IllegalArgumentException if the provided value is not supported by the method
      */
     @Override
-    public void setData(@NotNull String key, @Nullable Object value) {
-        try {
-            JsonObject oldObject = getData();
+    public synchronized void setData(@NotNull String key, @Nullable Object value) {
+        if (value == null) {
+            JsonElement previous = getData().remove(key);
+            if (previous != null) {
+                syncIdentity(key);
+                publishSnapshot(key);
+                if (isReporting()) publish(UserChange.updated(uuid, key, previous, null));
+                changed();
+            }
+            return;
+        }
+
+        put(key, JsonUtil.toElement(value));
+    }
+
+    /**
+     * Stores an integer under the provided key as a native JSON number.
+     *
+     * @param key   the target key
+     * @param value the target value
+     */
+    @Override
+    public synchronized void setInt(@NotNull String key, int value) {
+        put(key, new JsonPrimitive(value));
+    }
+
+    /**
+     * Stores a long under the provided key as a native JSON number.
+     *
+     * @param key   the target key
+     * @param value the target value
+     */
+    @Override
+    public synchronized void setLong(@NotNull String key, long value) {
+        put(key, new JsonPrimitive(value));
+    }
+
+    /**
+     * Stores a double under the provided key as a native JSON number.
+     *
+     * @param key   the target key
+     * @param value the target value
+     */
+    @Override
+    public synchronized void setDouble(@NotNull String key, double value) {
+        put(key, new JsonPrimitive(value));
+    }
+
+    /**
+     * Stores a boolean under the provided key as a native JSON boolean.
+     *
+     * @param key   the target key
+     * @param value the target value
+     */
+    @Override
+    public synchronized void setBoolean(@NotNull String key, boolean value) {
+        put(key, new JsonPrimitive(value));
+    }
+
+    /**
+     * Atomically adds the provided delta to the number assigned to the provided key. A missing value,
+     * or one that cannot be read as a number, is treated as zero.
+     *
+     * @param key   the target key
+     * @param delta the amount to add, which may be negative
+     * @return the updated value
+     */
+    @Override
+    public synchronized long increment(@NotNull String key, long delta) {
+        long value = getLong(key, 0) + delta;
+        put(key, new JsonPrimitive(value));
+        return value;
+    }
+
+    /**
+     * Assigns a value to the provided key, creating any missing parent object. A null value removes the key.
+     *
+     * @param key   the compiled key
+     * @param value the target value
+     * @throws IllegalArgumentException if the value is not supported, or a parent is not an object
+     */
+    @Override
+    public synchronized void setData(@NotNull UserKey key, @Nullable Object value) {
+        if (!key.isNested()) {
+            setData(key.getPath(), value);
+            return;
+        }
+        if (config == null) create();
+
+        if (value == null) {
+            JsonElement previous = key.remove(getData());
+            if (previous != null) {
+                publishSnapshot(key.getSegment(0));
+                if (isReporting()) publish(UserChange.updated(uuid, key.getPath(), previous, null));
+                changed();
+            }
+            return;
+        }
+
+        put(key, JsonUtil.toElement(value));
+    }
 
-            if (value instanceof JsonElement) oldObject.add(key, (JsonElement) value);
-            else oldObject.addProperty(key, String.valueOf(value));
+    /**
+     * Stores an integer under the provided key as a native JSON number.
+     *
+     * @param key   the compiled key
+     * @param value the target value
+     */
+    @Override
+    public synchronized void setInt(@NotNull UserKey key, int value) {
+        put(key, new JsonPrimitive(value));
+    }
+
+    /**
+     * Stores a long under the provided key as a native JSON number.
+     *
+     * @param key   the compiled key
+     * @param value the target value
+     */
+    @Override
+    public synchronized void setLong(@NotNull UserKey key, long value) {
+        put(key, new JsonPrimitive(value));
+    }
+
+    /**
+     * Stores a double under the provided key as a native JSON number.
+     *
+     * @param key   the compiled key
+     * @param value the target value
+     */
+    @Override
+    public synchronized void setDouble(@NotNull UserKey key, double value) {
+        put(key, new JsonPrimitive(value));
+    }
+
+    /**
+     * Stores a boolean under the provided key as a native JSON boolean.
+     *
+     * @param key   the compiled key
+     * @param value the target value
+     */
+    @Override
+    public synchronized void setBoolean(@NotNull UserKey key, boolean value) {
+        put(key, new JsonPrimitive(value));
+    }
+
+    /**
+     * Atomically adds the provided delta to the number the provided key points to. A missing value,
+     * or one that cannot be read as a number, is treated as zero.
+     *
+     * @param key   the compiled key
+     * @param delta the amount to add, which may be negative
+     * @return the updated value
+     */
+    @Override
+    public synchronized long increment(@NotNull UserKey key, long delta) {
+        long value = getLong(key, 0) + delta;
+        put(key, new JsonPrimitive(value));
+        return value;
+    }
+
+    /**
+     * Assigns a value to the provided compiled key and marks the data as changed. Top-level keys are
+     * handled like their plain text counterpart, so identity fields stay in sync.
+     *
+     * @param key   the compiled key
+     * @param value the target value
+     */
+    private void put(@NotNull UserKey key, @NotNull JsonElement value) {
+        if (!key.isNested()) {
+            put(key.getPath(), value);
+            return;
+        }
+        if (config == null) create();
+
+        JsonElement previous = key.set(getData(), value);
+        publishSnapshot(key.getSegment(0));
+        if (isReporting() && !value.equals(previous)) publish(UserChange.updated(uuid, key.getPath(), previous, value));
+        changed();
+    }
 
-            FileWriter writer = new FileWriter(userFile);
-            gson.toJson(oldObject, writer);
-            writer.close();
-        } catch (IOException ex) {
+    /**
+     * Assigns a value to the provided key and marks the data as changed.
+     *
+     * @param key   the target key
+     * @param value the target value
+     */
+    private void put(@NotNull String key, @NotNull JsonElement value) {
+        JsonElement previous = getData().get(key);
+        getData().add(key, value);
+        if (isReporting() && !value.equals(previous)) publish(UserChange.updated(uuid, key, previous, value));
+        syncIdentity(key);
+        publishSnapshot(key);
+        changed();
+    }
+
+    /**
+     * Refreshes the cached identity field matching the provided key from the record. Keys that
+     * do not hold identity information are ignored. The UUID is never changed once assigned.
+     *
+     * @param key the changed key
+     */
+    private void syncIdentity(@NotNull String key) {
+        switch (key) {
+            case "name":
+                name = getText(key);
+                break;
+            case "display-name":
+                displayName = getText(key);
+                break;
+            case "custom-name":
+                customName = getText(key);
+                break;
+            case "locale":
+                locale = getText(key);
+                break;
+        }
+    }
+
+    /**
+     * Returns the text assigned to the provided key inside the record.
+     *
+     * @param key the data key
+     * @return the text value, or null if the key is missing or null
+     */
+    private @Nullable String getText(@NotNull String key) {
+        JsonElement value = config.get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+
+    /**
+     * Marks the data as dirty. Unless write-behind mode is enabled, the change is written immediately.
+     */
+    private void changed() {
+
+        // IN WRITE-BEHIND MODE, OR DURING AN EDIT, THE CHANGE IS WRITTEN LATER
+        version++;
+        dirty = true;
+        if (!writeBehind && edits == null) flush();
+    }
+
+    /**
+     * Writes any changes held in memory to this user's storage. If the data has not been
+     * modified since it was last written, this method will do nothing. If the write fails,
+     * the data remains dirty so it is retried by the next flush. If a batch is writing a copy
+     * prepared by {@link #prepareWrite()}, this method waits for it first.
+     */
+    @Override
+    public synchronized void flush() {
+        awaitWrite();
+        if (!dirty || config == null || edits != null) return;
+
+        try {
+            storage.save(uuid, config);
+            dirty = false;
+        } catch (UserStorageException ex) {
             ex.printStackTrace();
         }
     }
 
+    /**
+     * Copies the changes held in memory so they may be written in a batch without holding this
+     * user's monitor. Nothing is returned while an edit or another prepared write is in progress.
+     * Until the write is completed or aborted, writes performed by this user wait for it.
+     *
+     * @return a copy of the pending changes, or null if there is nothing to write
+     */
+    @Override
+    public synchronized @Nullable UserWrite prepareWrite() {
+        if (!dirty || config == null || edits != null || pendingWrite != null) return null;
+        return pendingWrite = new UserWrite(uuid, JsonUtil.copy(config), version);
+    }
+
+    /**
+     * Marks the changes copied by {@link #prepareWrite()} as written, unless this user has been
+     * changed or deleted since the write was prepared.
+     *
+     * @param write the committed write
+     */
+    @Override
+    public synchronized void completeWrite(@NotNull UserWrite write) {
+        if (write != pendingWrite) return;
+        if (write.getVersion() == version && !write.isDiscarded()) dirty = false;
+        releaseWrite();
+    }
+
+    /**
+     * Releases a write prepared by {@link #prepareWrite()} that could not be committed, leaving
+     * this user dirty.
+     *
+     * @param write the failed write
+     */
+    @Override
+    public synchronized void abortWrite(@NotNull UserWrite write) {
+        if (write == pendingWrite) releaseWrite();
+    }
+
+    /**
+     * Clears the prepared write and wakes every thread waiting to write this user.
+     */
+    private void releaseWrite() {
+        pendingWrite = null;
+        notifyAll();
+    }
+
+    /**
+     * Waits until the write prepared by {@link #prepareWrite()}, if any, has been completed or aborted,
+     * so a write performed by this user is never overwritten by an older copy. This user's monitor
+     * is released while waiting, and must be held by the caller.
+     */
+    private void awaitWrite() {
+        boolean interrupted = false;
+        while (pendingWrite != null) {
+            try {
+                wait();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Applies several changes to this user as a single transaction. The editor runs while holding this
+     * user's monitor, so other threads never observe a partial edit; the changes are then written using
+     * one storage write, even in write-behind mode, and reported as one {@link UserChange.Type#EDITED}
+     * change. If the editor throws, or the write fails, the record and identity fields are rolled back
+     * and the exception is rethrown. Like {@link UserData#edit(Consumer)}, the record is restored in
+     * place, so the object returned by {@link #getData()}, and the objects and arrays it holds, never
+     * keep discarded changes. An edit started from within another edit joins it.
+     *
+     * @param editor the function applying the changes
+     * @throws UserStorageException when the changes cannot be written
+     */
+    @Override
+    public synchronized void edit(@NotNull Consumer<? super UserData> editor) {
+        if (edits != null) {
+            editor.accept(this);
+            return;
+        }
+        awaitWrite();
+        if (config == null) create();
+
+        // KEEP A COPY OF THE CURRENT STATE TO ROLL BACK TO
+        JsonObject data = config;
+        JsonObject previous = data != null ? JsonUtil.copy(data) : null;
+        String previousName = name, previousDisplayName = displayName, previousCustomName = customName, previousLocale = locale;
+        boolean previousDirty = dirty;
+
+        List<UserChange> changes = edits = new ArrayList<>();
+        try {
+            editor.accept(this);
+            if (dirty && config != null) storage.save(uuid, config);
+        } catch (RuntimeException | Error ex) {
+
+            // RESTORE THE RECORD IN PLACE, AS IT MAY BE SHARED
+            if (data != null) JsonUtil.restore(data, previous);
+            config = data;
+            name = previousName;
+            displayName = previousDisplayName;
+            customName = previousCustomName;
+            locale = previousLocale;
+            dirty = previousDirty;
+            throw ex;
+        } finally {
+            edits = null;
+            publishSnapshot();
+        }
+
+        dirty = false;
+        if (!changes.isEmpty()) publish(UserChange.edited(uuid, changes));
+    }
+
+    /**
+     * Returns an immutable view of this user's current state. A new snapshot is published each time
+     * a mutation is committed, so this method never locks and never waits on a writer. Changes made
+     * during an {@link #edit(Consumer)} are published together once the edit completes.
+     *
+     * @return the current snapshot
+     */
+    public @NotNull UserSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes a snapshot of the whole record and identity information. Called under this user's
+     * monitor whenever the record is loaded or replaced.
+     */
+    private void publishSnapshot() {
+        snapshot = new UserSnapshot(uuid, name, displayName, customName, locale, config != null ? config : new JsonObject());
+    }
+
+    /**
+     * Publishes a snapshot reflecting a change made to the provided top-level key. Only the changed
+     * value is converted, unless the key holds identity information. Nothing is published while
+     * an edit is in progress, so readers never observe a partial edit.
+     *
+     * @param key the changed top-level key
+     */
+    private void publishSnapshot(@NotNull String key) {
+        if (edits != null) return;
+
+        UserSnapshot current = snapshot;
+        if (current == null || Arrays.asList(IDENTITY_KEYS).contains(key)) publishSnapshot();
+        else snapshot = current.with(key, config.get(key));
+    }
+
+    /**
+     * Sets the listener notified of every mutation applied to this user. If this user's record was
+     * created before a listener was assigned, the creation is reported immediately.
+     *
+     * @param listener the change listener, or null to stop reporting changes
+     */
+    @Override
+    public synchronized void setChangeListener(@Nullable Consumer<UserChange> listener) {
+        this.changeListener = listener;
+        if (listener != null && createdUnreported) publish(UserChange.created(uuid));
+    }
+
+    /**
+     * Returns whether key changes should be captured. Changes are skipped when no listener is
+     * assigned, or when the listener is a {@link UserChangeFeed} without subscribers, so mutations
+     * do not pay for comparing and copying values nobody receives.
+     *
+     * @return true if key changes should be published
+     */
+    private boolean isReporting() {
+        Consumer<UserChange> listener = changeListener;
+        return listener != null && (!(listener instanceof UserChangeFeed) || ((UserChangeFeed) listener).hasSubscribers());
+    }
+
+    /**
+     * Reports a change to the assigned change listener, if any.
+     *
+     * @param change the change to report
+     */
+    private void publish(@NotNull UserChange change) {
+        Consumer<UserChange> listener = changeListener;
+        if (listener == null) return;
+
+        // CHANGES MADE DURING AN EDIT ARE REPORTED TOGETHER ONCE IT IS WRITTEN
+        if (edits != null) {
+            edits.add(change);
+            return;
+        }
+
+        if (change.getType() == UserChange.Type.CREATED) createdUnreported = false;
+        listener.accept(change);
+    }
+
+    /**
+     * Returns whether this user's data holds changes that have not yet been written to its data file.
+     *
+     * @return true if there are unwritten changes
+     */
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Toggles write-behind mode for this user. Disabling write-behind mode immediately writes
+     * any pending changes to the user's storage.
+     *
+     * @param toggle whether write-behind mode should be enabled
+     */
+    @Override
+    public void setWriteBehind(boolean toggle) {
+        this.writeBehind = toggle;
+        if (!toggle) flush();
+    }
+
     /**
      * Retrieves data from a user's data file. If the data key does not exist inside the file,
      * the provided default value will be returned.
@@ -208,15 +809,200 @@ public class BukkitUserData implements UserData
      * @return The data assigned to the provided key, or the default value if the key is not found
      */
     @Override
-    public @Nullable String getData(@NotNull String key, @Nullable String def) {
+    public synchronized @Nullable String getData(@NotNull String key, @Nullable String def) {
         if (config == null) create();
         return getData().get(key) != null && !getData().get(key).isJsonNull() ? getData().get(key).getAsString() : def;
     }
 
+    /**
+     * Retrieves the integer assigned to the provided key. Values stored as text by earlier versions
+     * are parsed, and the default value is returned if parsing fails.
+     *
+     * @param key Data key used to retrieve the data
+     * @param def Default value to be returned if the key is not found
+     * @return The integer assigned to the provided key, or the default value
+     */
+    @Override
+    public synchronized int getInt(@NotNull String key, int def) {
+        JsonPrimitive value = getPrimitive(key);
+        try {
+            return value != null ? value.getAsInt() : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Retrieves the long assigned to the provided key. Values stored as text by earlier versions
+     * are parsed, and the default value is returned if parsing fails.
+     *
+     * @param key Data key used to retrieve the data
+     * @param def Default value to be returned if the key is not found
+     * @return The long assigned to the provided key, or the default value
+     */
+    @Override
+    public synchronized long getLong(@NotNull String key, long def) {
+        JsonPrimitive value = getPrimitive(key);
+        try {
+            return value != null ? value.getAsLong() : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Retrieves the double assigned to the provided key. Values stored as text by earlier versions
+     * are parsed, and the default value is returned if parsing fails.
+     *
+     * @param key Data key used to retrieve the data
+     * @param def Default value to be returned if the key is not found
+     * @return The double assigned to the provided key, or the default value
+     */
+    @Override
+    public synchronized double getDouble(@NotNull String key, double def) {
+        JsonPrimitive value = getPrimitive(key);
+        try {
+            return value != null ? value.getAsDouble() : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Retrieves the boolean assigned to the provided key. Values stored as text by earlier versions
+     * are parsed.
+     *
+     * @param key Data key used to retrieve the data
+     * @param def Default value to be returned if the key is not found
+     * @return The boolean assigned to the provided key, or the default value
+     */
+    @Override
+    public synchronized boolean getBoolean(@NotNull String key, boolean def) {
+        JsonPrimitive value = getPrimitive(key);
+        return value != null ? value.getAsBoolean() : def;
+    }
+
+    /**
+     * Retrieves the value the provided key points to. The returned element is the one held by the
+     * record, so it should not be modified directly.
+     *
+     * @param key Compiled key used to retrieve the data
+     * @return The value, or null if it is missing
+     */
+    @Override
+    public synchronized @Nullable JsonElement getElement(@NotNull UserKey key) {
+        if (config == null) create();
+        return key.resolve(getData());
+    }
+
+    /**
+     * Retrieves the text the provided key points to.
+     *
+     * @param key Compiled key used to retrieve the data
+     * @param def Default value to be returned if the key is not found
+     * @return The text, or the default value if the key is missing or null
+     */
+    @Override
+    public synchronized @Nullable String getData(@NotNull UserKey key, @Nullable String def) {
+        JsonPrimitive value = getPrimitive(key);
+        return value != null ? value.getAsString() : def;
+    }
+
+    /**
+     * Retrieves the integer the provided key points to.
+     *
+     * @param key Compiled key used to retrieve the data
+     * @param def Default value to be returned if the key is not found
+     * @return The integer, or the default value
+     */
+    @Override
+    public synchronized int getInt(@NotNull UserKey key, int def) {
+        JsonPrimitive value = getPrimitive(key);
+        try {
+            return value != null ? value.getAsInt() : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Retrieves the long the provided key points to.
+     *
+     * @param key Compiled key used to retrieve the data
+     * @param def Default value to be returned if the key is not found
+     * @return The long, or the default value
+     */
+    @Override
+    public synchronized long getLong(@NotNull UserKey key, long def) {
+        JsonPrimitive value = getPrimitive(key);
+        try {
+            return value != null ? value.getAsLong() : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Retrieves the double the provided key points to.
+     *
+     * @param key Compiled key used to retrieve the data
+     * @param def Default value to be returned if the key is not found
+     * @return The double, or the default value
+     */
+    @Override
+    public synchronized double getDouble(@NotNull UserKey key, double def) {
+        JsonPrimitive value = getPrimitive(key);
+        try {
+            return value != null ? value.getAsDouble() : def;
+        } catch (NumberFormatException ex) {
+            return def;
+        }
+    }
+
+    /**
+     * Retrieves the boolean the provided key points to.
+     *
+     * @param key Compiled key used to retrieve the data
+     * @param def Default value to be returned if the key is not found
+     * @return The boolean, or the default value
+     */
+    @Override
+    public synchronized boolean getBoolean(@NotNull UserKey key, boolean def) {
+        JsonPrimitive value = getPrimitive(key);
+        return value != null ? value.getAsBoolean() : def;
+    }
+
+    /**
+     * Returns the primitive value the provided compiled key points to, loading the user's record if needed.
+     *
+     * @param key Compiled key used to retrieve the data
+     * @return The primitive value, or null if the key is missing or does not hold a primitive
+     */
+    private @Nullable JsonPrimitive getPrimitive(@NotNull UserKey key) {
+        JsonElement value = getElement(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsJsonPrimitive() : null;
+    }
+
+    /**
+     * Returns the primitive value assigned to the provided key, loading the user's record if needed.
+     *
+     * @param key Data key used to retrieve the data
+     * @return The primitive value, or null if the key is missing or does not hold a primitive
+     */
+    private @Nullable JsonPrimitive getPrimitive(@NotNull String key) {
+        if (config == null) create();
+        JsonElement value = getData().get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsJsonPrimitive() : null;
+    }
+
     /**
      * Returns the configuration assigned to this user. The behavior of this method, including autoload
      * features, may vary between platforms.
      *
+     * <p>Please note that identity information, such as the user's name, is cached; changes made
+     * directly to the returned object are not reflected by the identity getters. Use
+     * {@link #setData(String, Object)} instead.</p>
+     *
      * @return The user's configuration as a {@link JsonObject}.
      */
     @Override
@@ -224,13 +1010,26 @@ public class BukkitUserData implements UserData
         return config;
     }
 
+    /**
+     * Returns the storage used to persist this user's data.
+     *
+     * @return The user's storage
+     */
+    @Override
+    public @NotNull UserStorage getStorage() {
+        return storage;
+    }
+
     /**
      * Returns the data file associated with this user.
      *
      * @return The user's data file as a {@link File} object.
+     * @deprecated Use {@link #getStorage()} instead.
      */
     @Override
+    @Deprecated
     public @NotNull File getFile() {
-        return userFile;
+        if (storage instanceof JsonFileStorage) return ((JsonFileStorage) storage).getFile(uuid);
+        return new File(plugin.getDataFolder() + "/user-data", uuid + ".json");
     }
 }
@@ -1,33 +1,88 @@
 package com.moleculepowered.platform.bukkit.user;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.moleculepowered.api.Console;
+import com.moleculepowered.api.MoleculePlugin;
+import com.moleculepowered.api.user.User;
+import com.moleculepowered.api.user.UserBloomFilter;
+import com.moleculepowered.api.user.UserIO;
 import com.moleculepowered.api.user.UserManager;
+import com.moleculepowered.api.user.storage.JsonFileStorage;
+import com.moleculepowered.platform.bukkit.BukkitConsole;
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * A {@link UserManager} class created for the bukkit platform, it handles all tasks related
  * to the users handled by this platform. Allowing you to add, remove or replace existing users.
  *
+ * <p>Users follow the player's session: their record is prefetched during the asynchronous
+ * pre-login, bound when the player joins and flushed when they quit. With lazy loading enabled,
+ * the user is also released on quit.</p>
+ *
  * @author OMGitzFROST
  */
-public final class BukkitUserManager extends UserManager
+public final class BukkitUserManager extends UserManager implements Listener
 {
-    private final File userDataFolder;
+    private static final long PREFETCH_TIMEOUT = 60_000, KNOWN_USERS_CAPACITY = 1_000_000;
+    private final Set<UUID> online = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Long> prefetched = new ConcurrentHashMap<>();
     private final Plugin plugin;
+    private final File knownUsersFile;
+    private volatile Map<UUID, String> unindexed;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
 
     /**
      * The main constructor for this manager system, it's used to initialize all required
-     * objects necessary for this class to work properly
+     * objects necessary for this class to work properly. By default, users are stored as
+     * JSON files inside the plugin's "user-data" folder.
      *
      * @param plugin Parent plugin
      */
     public BukkitUserManager(@NotNull Plugin plugin) {
+        super(new JsonFileStorage(new File(plugin.getDataFolder(), "user-data")), consoleOf(plugin));
         this.plugin = plugin;
-        this.userDataFolder = new File(plugin.getDataFolder(), "user-data");
+        this.knownUsersFile = new File(plugin.getDataFolder(), "known-users.dat");
+
+        // DELIVER ASYNCHRONOUS COMPLETIONS ON THE SERVER THREAD WHEN REQUESTED
+        setMainThreadExecutor(task -> {
+            if (Bukkit.isPrimaryThread()) task.run();
+            else plugin.getServer().getScheduler().runTask(plugin, task);
+        });
+    }
+
+    /**
+     * Returns the console of the provided plugin, or a new console named after it if the plugin
+     * does not provide one.
+     *
+     * @param plugin Parent plugin
+     * @return the plugin's console
+     */
+    private static @NotNull Console consoleOf(@NotNull Plugin plugin) {
+        return plugin instanceof MoleculePlugin ? ((MoleculePlugin) plugin).getConsole() : new BukkitConsole(plugin);
     }
 
     /**
@@ -36,15 +91,298 @@ public final class BukkitUserManager extends UserManager
      * or starting scheduled tasks. This method should be called when the server loads your plugin and
      * is usually where you would initialize any resources or functionality needed for your plugin to
      * operate correctly.
+     *
+     * <p>When lazy loading is enabled, no users are loaded here; they are loaded on their first
+     * lookup or when they join the server.</p>
      */
     @Override
     public void onEnable() {
 
+        // NEVER LET A FULL I/O QUEUE RUN STORAGE WORK ON THE SERVER THREAD
+        UserIO.setMainThread(Thread.currentThread());
+
         // ENSURE USER DATA FOLDER EXISTS BEFORE ANYTHING
-        if (!userDataFolder.exists() && !userDataFolder.mkdirs())
-            throw new IllegalArgumentException("An error occurred whilst attempting to create the user-data folder");
+        if (getStorage() instanceof JsonFileStorage) {
+            File userDataFolder = ((JsonFileStorage) getStorage()).getDataFolder();
+            if (!userDataFolder.exists() && !userDataFolder.mkdirs())
+                throw new IllegalArgumentException("An error occurred whilst attempting to create the user-data folder");
+
+            // MIGRATE LEGACY FILES AND CHECK THE INDEX IN THE BACKGROUND, REPORTING FILES LEFT BEHIND
+            ((JsonFileStorage) getStorage()).prepare().whenComplete((skipped, error) -> {
+                if (error != null) console.severe("Failed to migrate the user-data folder: {0}", error.getMessage());
+                else skipped.forEach(file -> console.warning("Unable to migrate {0}: it holds no valid UUID, or its user already has a record. Please recover it by hand", file.getPath()));
+            });
+        }
+
+        // ANSWER LOOKUPS OF UNKNOWN PLAYERS USING THE PERSISTED FILTER, OR REBUILD IT IF UNUSABLE
+        UserBloomFilter filter = UserBloomFilter.load(knownUsersFile);
+        boolean rebuild = filter == null || filter.isSaturated();
+        if (rebuild) filter = new UserBloomFilter(filter != null ? filter.getExpected() * 2 : KNOWN_USERS_CAPACITY, 0.01);
+
+        // THE FILTER IS ONLY SAVED ON A CLEAN SHUTDOWN, SO IT IS CONSUMED ONCE LOADED. AFTER A CRASH,
+        // IT IS MISSING AND ONLY TRUSTED ONCE REBUILT, AS IT WOULD LACK USERS SEEN IN THE LAST SESSION
+        boolean trusted = !rebuild && knownUsersFile.delete();
+        setKnownUsers(filter).setKnownUsersComplete(trusted);
+
+        // READ THE OFFLINE PLAYERS HERE, AS THE BUKKIT API IS NOT THREAD-SAFE. WITH LAZY LOADING, THEY ARE NOT
+        // READ AT ALL, AS THE KNOWN USERS FILTER AND THE STORAGE ALREADY ANSWER LOOKUPS OF UNKNOWN PLAYERS
+        OfflinePlayer[] players = isLazyLoading() ? new OfflinePlayer[0] : Bukkit.getOfflinePlayers();
+        Map<UUID, String> known = new HashMap<>(players.length * 4 / 3 + 1);
+        for (OfflinePlayer player : players) known.put(player.getUniqueId(), player.getName());
+
+        // ADD ALL OFFLINE USERS TO OUR USER MAP, THEN INDEX THEM AND THE STORED USERS IN THE BACKGROUND
+        if (!isLazyLoading()) loadAll(known);
+        unindexed = known;
+        UserIO.runAsync(() -> indexKnownUsers(known));
+
+        // TRACK ONLINE PLAYERS SO THEY ARE NEVER EVICTED
+        Bukkit.getOnlinePlayers().forEach(p -> {
+            online.add(p.getUniqueId());
+            markKnown(p.getUniqueId(), p.getName());
+        });
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+
+        // DELIVER USER CHANGES IN ONE BATCH PER TICK
+        plugin.getServer().getScheduler().runTaskTimer(plugin, this::dispatchChanges, 1L, 1L);
+
+        // START THE WRITE-BEHIND FLUSHER AND EVICTION TASKS IF ENABLED
+        super.onEnable();
+    }
+
+    /*
+    LOADING METHODS
+     */
+
+    /**
+     * Stops the background tasks and writes every pending change, then saves the known users
+     * filter so it can be reused on the next start.
+     */
+    @Override
+    public void onDisable() {
+        super.onDisable();
+
+        UserBloomFilter filter = getKnownUsers();
+        if (filter == null) return;
+        try {
+            filter.save(knownUsersFile);
+        } catch (RuntimeException ex) {
+            console.severe("Failed to save the known users filter: {0}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Adds the provided players, read from the server on enable, and every user held by the storage,
+     * to the name index and known users filter, so offline users may be found by name or prefix
+     * without being loaded. Users held by the storage that are unknown to this server, for example
+     * created by another server, are indexed using the name stored in their record. Once done, the
+     * known users filter is marked as complete. This method does not call the Bukkit API.
+     *
+     * @param players the name of every offline player, by UUID, empty when lazy loading is enabled
+     */
+    private void indexKnownUsers(@NotNull Map<UUID, String> players) {
+        try {
+            players.forEach((uuid, name) -> {
+                if (name != null) indexName(uuid, name);
+                else markKnown(uuid, null);
+            });
+            for (UUID uuid : getStorage().getUniqueIds()) {
+                if (players.containsKey(uuid)) continue;
+
+                JsonObject record = getStorage().load(uuid);
+                JsonElement name = record != null ? record.get("name") : null;
+                if (name != null && name.isJsonPrimitive()) indexName(uuid, name.getAsString());
+                else markKnown(uuid, null);
+            }
+            setKnownUsersComplete(true);
+            unindexed = null;
+        } catch (RuntimeException ex) {
+            console.severe("Failed to index the known users: {0}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Loads every player known to this server in parallel and publishes the results into the user
+     * collection in a single step. The players are read from the server beforehand, so only the
+     * records are read and parsed on a dedicated fork-join pool sized to the available processors,
+     * and progress is reported to the console as loading advances.
+     *
+     * @param players the name of every player known to this server, by UUID
+     */
+    private void loadAll(@NotNull Map<UUID, String> players) {
+        if (players.isEmpty()) return;
+
+        long start = System.currentTimeMillis();
+        int total = players.size(), step = Math.max(1, total / 10);
+        AtomicInteger progress = new AtomicInteger();
+        console.info("Loading {0} users using {1} threads...", total, parallelism);
+
+        // READ AND PARSE EVERY RECORD ON THE FORK-JOIN POOL
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<User> loaded;
+        try {
+            loaded = pool.submit(() -> players.entrySet().parallelStream()
+                    .map(player -> {
+                        User user = new BukkitUser(plugin, player.getKey(), player.getValue(), getStorage());
+                        int count = progress.incrementAndGet();
+                        if (count % step == 0 && count < total)
+                            console.info("Loaded {0}/{1} users ({2}%)", count, total, count * 100 / total);
+                        return user;
+                    })
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted whilst loading users", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("An error occurred whilst loading users", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        // PUBLISH EVERY LOADED USER AT ONCE, THEN REFRESH THOSE ONLINE ON THE SERVER THREAD
+        int added = addUsers(loaded);
+        Bukkit.getOnlinePlayers().forEach(p -> getUser(p.getUniqueId()).update(p));
+        console.success("Loaded {0} users in {1}ms", added, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Sets the number of threads used to load users in parallel when lazy loading is disabled.
+     * By default, one thread is used for each available processor.
+     *
+     * @param threads the number of loader threads
+     * @return this manager
+     * @throws IllegalArgumentException when the number of threads is not positive
+     */
+    public @NotNull BukkitUserManager setLoaderParallelism(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("The loader parallelism must be at least 1");
+        this.parallelism = threads;
+        return this;
+    }
+
+    /**
+     * Loads a user that is not currently resident. Only players that are online, have played on
+     * this server before or already have a stored record are loaded, preventing unknown players
+     * from receiving a user record.
+     *
+     * @param uuid the target UUID
+     * @return the loaded user, or null if the player is unknown
+     */
+    @Override
+    protected @Nullable User loadUser(@NotNull UUID uuid) {
+        OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
+        if (player == null) return null;
+        if (!player.isOnline() && !player.hasPlayedBefore() && !getStorage().exists(uuid)) return null;
+        return new BukkitUser(plugin, player, getStorage());
+    }
+
+    /**
+     * Loads a user that is not currently resident, using their name. Online players are resolved
+     * directly. Offline players are resolved through the name index, which the manager consults
+     * before calling this method, so once every known user has been indexed a miss means the
+     * player is unknown. Until then, the offline players read when this manager was enabled are
+     * searched instead, which are none when lazy loading is enabled.
+     *
+     * @param name the target name
+     * @return the loaded user, or null if the player is unknown
+     */
+    @Override
+    protected @Nullable User loadUser(@NotNull String name) {
+        Player player = Bukkit.getPlayerExact(name);
+        if (player != null) return new BukkitUser(plugin, player, getStorage());
+
+        Map<UUID, String> pending = unindexed;
+        if (pending == null) return null;
+        for (Map.Entry<UUID, String> entry : pending.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getValue())) return loadUser(entry.getKey());
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether a user may currently be evicted. Online players always remain resident.
+     *
+     * @param user the target user
+     * @return true if the user is offline
+     */
+    @Override
+    protected boolean isEvictable(@NotNull User user) {
+        UUID uuid = user.getUniqueId();
+        if (online.contains(uuid)) return false;
+
+        // KEEP PREFETCHED USERS RESIDENT UNTIL THEY JOIN, OR UNTIL THE PREFETCH EXPIRES
+        Long prefetchedAt = prefetched.get(uuid);
+        if (prefetchedAt == null) return true;
+        if (System.currentTimeMillis() - prefetchedAt < PREFETCH_TIMEOUT) return false;
+        prefetched.remove(uuid, prefetchedAt);
+        return true;
+    }
+
+    /*
+    LISTENERS
+     */
+
+    /**
+     * Prefetches the user of a player who is about to join, while still off the server thread, so
+     * binding them on join is a map lookup rather than a disk read. Only players allowed to log in
+     * are prefetched, and players without a record are left to be created when they join. As the
+     * Bukkit API is not thread-safe, the user is built from the identity carried by the event.
+     *
+     * @param event the pre-login event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+
+        UUID uuid = event.getUniqueId();
+        prefetched.put(uuid, System.currentTimeMillis());
+        if (isResident(uuid)) return;
+
+        if (getStorage().exists(uuid)) addUser(new BukkitUser(plugin, uuid, event.getName(), getStorage()));
+        else prefetched.remove(uuid);
+    }
+
+    /**
+     * Binds the joining player's user, ensuring they remain resident while online. If the
+     * player has changed their name since they were last seen, their user is updated and reindexed.
+     *
+     * @param event the join event
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        online.add(player.getUniqueId());
+        markKnown(player.getUniqueId(), player.getName());
+        prefetched.remove(player.getUniqueId());
+
+        User user = getUser(player.getUniqueId());
+        if (!player.getName().equals(user.getName())) {
+            user.update(player);
+            reindex(user);
+        }
+    }
+
+    /**
+     * Flushes the quitting player's user off the server thread. When lazy loading is enabled, the
+     * user is also released from this manager, unless the player has reconnected in the meantime.
+     *
+     * @param event the quit event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        online.remove(uuid);
+
+        User user = users.get(uuid);
+        if (user == null) return;
 
-        // ADD ALL OFFLINE USERS TO OUR USER MAP
-        Arrays.stream(Bukkit.getOfflinePlayers()).forEach(p -> users.add(new BukkitUser(plugin, p)));
+        // WHEN THE I/O QUEUE IS FULL, THE USER REMAINS RESIDENT AND IS WRITTEN BY A LATER FLUSH
+        UserIO.runAsync(() -> {
+            try {
+                if (!isLazyLoading()) user.flush();
+                else if (!online.contains(uuid) && !prefetched.containsKey(uuid)) removeUser(user);
+                getStorage().touch(uuid);
+            } catch (RuntimeException ex) {
+                console.severe("Failed to release user {0}: {1}", uuid, ex.getMessage());
+            }
+        });
     }
 }